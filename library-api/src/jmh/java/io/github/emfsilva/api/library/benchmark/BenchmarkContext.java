@@ -0,0 +1,55 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.LibraryApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class BenchmarkContext {
+
+    private static final int INSERT_BATCH = 5_000;
+
+    private BenchmarkContext() {
+    }
+
+    // propriedades passadas como argumentos para prevalecer sobre o application.properties
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(webApplicationType)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static void populate(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{(long) i + 1, title(i), "Author " + (i % 1_000), isbn(i), 0L});
+            if (batch.size() == INSERT_BATCH || i == rows - 1) {
+                jdbc.batchUpdate("insert into book (id, title, author, isbn, version) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbc.execute("alter sequence book_seq restart with " + (rows + 1));
+    }
+
+    static String title(int i) {
+        return "Book " + i + " of the catalog";
+    }
+
+    static String isbn(int i) {
+        return "isbn-" + i;
+    }
+}
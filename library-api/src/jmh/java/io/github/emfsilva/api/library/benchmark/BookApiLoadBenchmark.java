@@ -0,0 +1,105 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// mesma API /api/books servida pela pilha servlet (Tomcat + JPA) e pela reativa (Netty + R2DBC),
+// com muitos clientes concorrentes chamando por HTTP; o cache de livros fica desligado
+// para que o getById chegue ao banco nas duas pilhas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookApiLoadBenchmark {
+
+    private static final String POPULATE = "insert into book (id, title, author, isbn, version) "
+            + "select x, concat('Book ', x, ' of the catalog'), concat('Author ', mod(x, 1000)), concat('isbn-', x), 0 "
+            + "from system_range(1, %d)";
+
+    @Param({"servlet", "reactive"})
+    String stack;
+
+    @Param({"10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+
+    @Setup
+    public void setUp() {
+        boolean reactive = "reactive".equals(stack);
+        context = BenchmarkContext.start(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET,
+                "server.port=0",
+                "spring.profiles.active=" + (reactive ? "reactive" : "default"),
+                "library.cache.books.maximum-size=0");
+        String populate = String.format(POPULATE, rows);
+        String restart = "alter sequence book_seq restart with " + (rows + 1);
+        if (reactive) {
+            DatabaseClient databaseClient = context.getBean(DatabaseClient.class);
+            databaseClient.execute(populate).then().then(databaseClient.execute(restart).then()).block();
+        } else {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            jdbc.execute(populate);
+            jdbc.execute(restart);
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/books";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return send(baseUrl + "/" + id);
+    }
+
+    @Benchmark
+    public int findByTitle() throws IOException, InterruptedException {
+        int i = ThreadLocalRandom.current().nextInt(1, rows + 1);
+        return send(baseUrl + "?title=Book%20" + i + "%20&page=0&size=20");
+    }
+
+    // com timeout, uma requisição perdida falha a medição em vez de travar a iteração
+    private int send(String url) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " -> " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
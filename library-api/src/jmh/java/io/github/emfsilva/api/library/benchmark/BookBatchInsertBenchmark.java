@@ -0,0 +1,72 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// vazão de inserts por livro: POST unitário (save) contra lote (saveAll)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookBatchInsertBenchmark {
+
+    static final int BOOKS = 1_000;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    long sequence;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public void saveOneByOne() {
+        for (Book book : nextBooks()) {
+            service.save(book);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public List<BookBatchResult> saveAll() {
+        return service.saveAll(nextBooks());
+    }
+
+    private List<Book> nextBooks() {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            long n = sequence++;
+            books.add(Book.builder().title(BenchmarkContext.title((int) n)).author("Author").isbn("bench-" + n).build());
+        }
+        return books;
+    }
+}
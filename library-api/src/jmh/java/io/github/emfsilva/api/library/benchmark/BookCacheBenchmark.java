@@ -0,0 +1,85 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.cache.BookJsonCache;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/books/{id} sobre um conjunto quente de ids: banco direto, cache de
+// entidades e near-cache de json contra mapear e serializar a cada acesso
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BookCacheBenchmark {
+
+    static final int ROWS = 100_000;
+    static final int HOT_IDS = 1_000;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    BookRepository repository;
+    BookJsonCache jsonCache;
+    BookMapper bookMapper;
+    ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("library.cache.books.near-cache.enabled=true");
+        BenchmarkContext.populate(context, ROWS);
+        service = context.getBean(BookService.class);
+        repository = context.getBean(BookRepository.class);
+        jsonCache = context.getBean(BookJsonCache.class);
+        bookMapper = context.getBean(BookMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> findByIdRepository() {
+        return repository.findById(hotId());
+    }
+
+    @Benchmark
+    public Optional<Book> getByIdCached() {
+        return service.getById(hotId());
+    }
+
+    @Benchmark
+    public byte[] getByIdMappedAndSerialized() throws Exception {
+        return objectMapper.writeValueAsBytes(bookMapper.toDto(service.getById(hotId()).get()));
+    }
+
+    @Benchmark
+    public byte[] getByIdNearCache() {
+        return jsonCache.get(hotId()).get().getJson();
+    }
+
+    private static long hotId() {
+        return ThreadLocalRandom.current().nextInt(HOT_IDS) + 1;
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.mapper.DirectBookMapper;
+import io.github.emfsilva.api.library.mapper.ModelMapperBookMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMapperBenchmark {
+
+    @Param({"direct", "modelmapper"})
+    String mapper;
+
+    @Param({"1", "1000"})
+    int rows;
+
+    BookMapper bookMapper;
+    List<Book> page;
+    BookDTO dto;
+
+    @Setup
+    public void setUp() {
+        bookMapper = "direct".equals(mapper) ? new DirectBookMapper() : new ModelMapperBookMapper(new ModelMapper());
+        page = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            page.add(Book.builder().id((long) i).title("Title " + i).author("Author " + i).isbn("isbn-" + i).build());
+        }
+        dto = BookDTO.builder().title("As Aventuras").author("Fulano").isbn("123").build();
+    }
+
+    @Benchmark
+    public List<BookDTO> toDtoPage() {
+        return bookMapper.toDtoList(page);
+    }
+
+    @Benchmark
+    public Book toEntity() {
+        return bookMapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.json.BookJsonModule;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.pagination.PageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookPageSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    int size;
+
+    ObjectMapper objectMapper;
+    ObjectMapper moduleMapper;
+    Page<BookDTO> page;
+    // como o stream da resposta: o JsonGenerator escreve no buffer reciclado e só
+    // repassa os bytes, sem montar um byte[] do corpo inteiro
+    ByteArrayOutputStream sink;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        moduleMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BookJsonModule()).build();
+        sink = new ByteArrayOutputStream(size * 128);
+        List<BookDTO> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(new BookDTO((long) i, BenchmarkContext.title(i), "Author " + i, BenchmarkContext.isbn(i)));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, size), 1_000_000);
+    }
+
+    // antes: PageImpl pelo BeanSerializer, com pageable e sort
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new PageImpl<>(page.getContent(), page.getPageable(),
+                page.getTotalElements()));
+    }
+
+    // depois: PageResponse e BookDTO pelos serializadores do BookJsonModule
+    @Benchmark
+    public byte[] writePageResponse() throws JsonProcessingException {
+        return moduleMapper.writeValueAsBytes(PageResponse.of(page.getContent(), page));
+    }
+
+    @Benchmark
+    public int streamPage() throws IOException {
+        sink.reset();
+        objectMapper.writeValue(sink, new PageImpl<>(page.getContent(), page.getPageable(), page.getTotalElements()));
+        return sink.size();
+    }
+
+    @Benchmark
+    public int streamPageResponse() throws IOException {
+        sink.reset();
+        moduleMapper.writeValue(sink, PageResponse.of(page.getContent(), page));
+        return sink.size();
+    }
+}
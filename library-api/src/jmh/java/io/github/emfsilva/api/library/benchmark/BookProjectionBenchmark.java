@@ -0,0 +1,69 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// página de entidades completas contra a projeção id,title (GET /api/books?fields=id,title);
+// rodar com -prof gc para comparar a alocação por página
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookProjectionBenchmark {
+
+    private static final Set<String> ID_TITLE = Set.of("id", "title");
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"20", "1000"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.populate(context, rows);
+        service = context.getBean(BookService.class);
+        page = PageRequest.of(1, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> entities() {
+        return service.find(new Book(), page);
+    }
+
+    @Benchmark
+    public Page<Book> idAndTitle() {
+        return service.find(new Book(), ID_TITLE, page);
+    }
+}
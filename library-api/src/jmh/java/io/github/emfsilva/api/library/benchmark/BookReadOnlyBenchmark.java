@@ -0,0 +1,77 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// mesma página de livros dentro de uma transação de escrita de quem chama, em que
+// cada entidade gerenciada passa pelo flush do commit, e numa somente leitura;
+// rodar com -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookReadOnlyBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"20", "1000"})
+    int pageSize;
+
+    @Param({"false", "true"})
+    boolean readOnly;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    TransactionTemplate transaction;
+    Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.populate(context, rows);
+        service = context.getBean(BookService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+        page = PageRequest.of(1, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> find() {
+        return transaction.execute(status -> service.find(new Book(), page));
+    }
+
+    @Benchmark
+    public CursorPage<Book> scroll() {
+        return transaction.execute(status -> service.scroll(new Book(), BookCursor.first("id"), pageSize, false));
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.search.BookSearchIndex;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class BookSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean searchIndex;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    Pageable firstPage = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("library.search.index.enabled=" + searchIndex);
+        BenchmarkContext.populate(context, rows);
+        if (searchIndex) {
+            context.getBean(BookSearchIndex.class).rebuild();
+        }
+        service = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> findByTitleContaining() {
+        Book filter = Book.builder().title("book " + ThreadLocalRandom.current().nextInt(rows) + " ").build();
+        return service.find(filter, firstPage);
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthorContaining() {
+        Book filter = Book.builder().author("author " + ThreadLocalRandom.current().nextInt(1_000)).build();
+        return service.find(filter, firstPage);
+    }
+}
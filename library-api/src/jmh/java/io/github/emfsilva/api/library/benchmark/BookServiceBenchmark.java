@@ -0,0 +1,102 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    BookService service;
+    BookRepository repository;
+    Pageable firstPage = PageRequest.of(0, 20);
+    Pageable deepPage;
+    BookCursor deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.populate(context, rows);
+        service = context.getBean(BookService.class);
+        repository = context.getBean(BookRepository.class);
+        deepPage = PageRequest.of(rows / 20 - 1, 20);
+        deepCursor = BookCursor.first("id").after(Book.builder().id((long) rows - 20).build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> findAllFirstPage() {
+        return service.find(new Book(), firstPage);
+    }
+
+    @Benchmark
+    public Page<Book> findAllDeepPage() {
+        return service.find(new Book(), deepPage);
+    }
+
+    @Benchmark
+    public CursorPage<Book> scrollFirstPage() {
+        return service.scroll(new Book(), BookCursor.first("id"), 20, false);
+    }
+
+    @Benchmark
+    public CursorPage<Book> scrollDeepPage() {
+        return service.scroll(new Book(), deepCursor, 20, false);
+    }
+
+    @Benchmark
+    public Page<Book> findByTitleContaining() {
+        Book filter = Book.builder().title(String.valueOf(ThreadLocalRandom.current().nextInt(rows))).build();
+        return service.find(filter, firstPage);
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthorContaining() {
+        Book filter = Book.builder().author("author " + ThreadLocalRandom.current().nextInt(1_000)).build();
+        return service.find(filter, firstPage);
+    }
+
+    @Benchmark
+    public boolean existsByIsbnHit() {
+        return repository.existsByIsbn(BenchmarkContext.isbn(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public boolean existsByIsbnMiss() {
+        return repository.existsByIsbn("missing-" + ThreadLocalRandom.current().nextInt(rows));
+    }
+}
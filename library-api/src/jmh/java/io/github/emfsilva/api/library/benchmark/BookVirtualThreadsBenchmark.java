@@ -0,0 +1,97 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// rajadas de requisições lentas (cada SQL espera latencyMillis) contra a pilha servlet,
+// com o pool padrão do Tomcat (200 threads) ou com virtual threads; precisa de JDK 21
+// no fork: -Djmh.args="BookVirtualThreads -jvm <jdk21>/bin/java"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookVirtualThreadsBenchmark {
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"1000"})
+    int concurrency;
+
+    @Param({"200", "1000"})
+    long latencyMillis;
+
+    @Param({"10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+
+    @Setup
+    public void setUp() {
+        SlowStatementInspector.latencyMillis = 0;
+        context = BenchmarkContext.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "library.threads.virtual=" + virtualThreads,
+                "library.cache.books.maximum-size=0",
+                // conexões suficientes para que o limite seja o de threads, não o do Hikari
+                "spring.datasource.hikari.maximum-pool-size=" + concurrency,
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + SlowStatementInspector.class.getName());
+        BenchmarkContext.populate(context, rows);
+        SlowStatementInspector.latencyMillis = latencyMillis;
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/books/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SlowStatementInspector.latencyMillis = 0;
+        context.close();
+    }
+
+    // uma rajada de `concurrency` GET /api/books/{id} simultâneos
+    @Benchmark
+    public int burst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            long id = ThreadLocalRandom.current().nextLong(1, rows + 1);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id))
+                    .timeout(Duration.ofMinutes(1)).GET().build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(response.uri() + " -> " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+}
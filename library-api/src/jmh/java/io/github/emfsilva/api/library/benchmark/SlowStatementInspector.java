@@ -0,0 +1,19 @@
+package io.github.emfsilva.api.library.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// simula um banco remoto lento: cada comando SQL espera latencyMillis antes de seguir
+public class SlowStatementInspector implements StatementInspector {
+
+    static volatile long latencyMillis;
+
+    @Override
+    public String inspect(String sql) {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.emfsilva.api.library.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// cache read-through de livros por id, limitado por tamanho e por tempo; a
+// remoção acontece depois do commit de cada alteração, pelo BookChangedEvent
+@Component
+public class BookCache {
+
+    public static final int EVICTION_ORDER = 0;
+
+    private final AsyncCache<Long, Book> cache;
+
+    public BookCache(@Value("${library.cache.books.maximum-size:10000}") long maximumSize,
+                     @Value("${library.cache.books.expire-after-write:10m}") Duration expireAfterWrite,
+                     MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        // hits, misses, evictions e tamanho como cache_* no /actuator/prometheus
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "books");
+    }
+
+    // livros ausentes não são guardados; a carga é única por id e roda fora do lock
+    // do cache (CacheLoads), e uma remoção concorrente descarta o valor carregado
+    public Optional<Book> get(Long id, Function<Long, Optional<Book>> loader) {
+        Book cached = CacheLoads.get(cache, id, key -> loader.apply(key).map(BookCache::copy).orElse(null));
+        return Optional.ofNullable(cached).map(BookCache::copy);
+    }
+
+    public void evict(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Order(EVICTION_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBook().getId() != null) {
+            evict(event.getBook().getId());
+        }
+    }
+
+    @Order(EVICTION_ORDER)
+    @EventListener
+    public void onBookInvalidated(BookInvalidatedEvent event) {
+        evict(event.getId());
+    }
+
+    // o livro é mutável: quem recebe uma cópia pode alterá-la sem sujar o cache
+    private static Book copy(Book book) {
+        return book.toBuilder().build();
+    }
+}
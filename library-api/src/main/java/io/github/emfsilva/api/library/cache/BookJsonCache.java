@@ -0,0 +1,113 @@
+package io.github.emfsilva.api.library.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+
+// near-cache do GET /api/books/{id}: guarda o BookDTO já serializado, junto com a
+// versão do livro para o ETag, então um acerto não passa pelo mapper nem pelo Jackson;
+// os bytes nunca são alterados
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.cache.books.near-cache.enabled", havingValue = "true")
+public class BookJsonCache {
+
+    private final BookService service;
+    private final BookMapper bookMapper;
+    private final ObjectWriter writer;
+    private final AsyncCache<Long, Entry> cache;
+
+    public BookJsonCache(BookService service, BookMapper bookMapper, ObjectMapper objectMapper,
+                         @Value("${library.cache.books.maximum-size:10000}") long maximumSize,
+                         @Value("${library.cache.books.expire-after-write:10m}") Duration expireAfterWrite,
+                         MeterRegistry registry) {
+        this.service = service;
+        this.bookMapper = bookMapper;
+        this.writer = objectMapper.writerFor(BookDTO.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        // registrado aqui e não como MeterBinder: o binder seria criado junto com o
+        // MeterRegistry, e o BookJsonCache depende do BookService, que depende do registry
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "books.json");
+    }
+
+    public Optional<Entry> get(Long id) {
+        return Optional.ofNullable(CacheLoads.get(cache, id,
+                key -> service.getById(key).map(this::serialize).orElse(null)));
+    }
+
+    public void evict(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    // depois do BookCache, senão a recarga daqui ainda poderia ler o livro antigo de lá
+    @Order(BookCache.EVICTION_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBook().getId() != null) {
+            evict(event.getBook().getId());
+        }
+    }
+
+    @Order(BookCache.EVICTION_ORDER + 1)
+    @EventListener
+    public void onBookInvalidated(BookInvalidatedEvent event) {
+        evict(event.getId());
+    }
+
+    private Entry serialize(Book book) {
+        try {
+            return new Entry(writer.writeValueAsBytes(bookMapper.toDto(book)), book.getVersion());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static final class Entry {
+
+        private final byte[] json;
+        private final Long version;
+
+        Entry(byte[] json, Long version) {
+            this.json = json;
+            this.version = version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+    }
+}
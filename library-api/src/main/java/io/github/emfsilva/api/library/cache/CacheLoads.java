@@ -0,0 +1,39 @@
+package io.github.emfsilva.api.library.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Cache.get(key, loader) executa o loader dentro do compute do ConcurrentHashMap, ou seja,
+// num bloco synchronized: uma virtual thread ficaria presa à thread carregadora durante
+// toda a ida ao banco, e outros ids do mesmo bucket esperariam junto. Aqui o compute só
+// publica um future vazio; quem o publicou faz a carga fora do lock e os demais leitores
+// do mesmo id esperam o future. Remover o id durante a carga descarta o resultado
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> entry = cache.get(key, (k, executor) -> load);
+        if (entry == load) {
+            try {
+                load.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.emfsilva.api.library.changelog;
+
+import io.github.emfsilva.api.library.model.entity.BookChange;
+import io.github.emfsilva.api.library.repository.BookChangeRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// log de alterações de livros na tabela book_change, gravado na mesma transação da
+// alteração. O offset vem da sequence na hora do persist, mas as transações não
+// commitam nessa ordem: a leitura só vai até o horizonte, o offset anterior ao menor
+// ainda em aberto, então um consumidor nunca pula um registro que commita depois.
+// O horizonte é desta JVM, como o IsbnRegistry e os caches
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.change-log.enabled", havingValue = "true")
+public class BookChangeLog {
+
+    private final BookChangeRepository repository;
+    private final TransactionTemplate transaction;
+    private final Object lock = new Object();
+    // offsets reservados por transações ainda abertas
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-change-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastReserved;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookChangeLog(BookChangeRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        synchronized (lock) {
+            lastReserved = repository.findLastId();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        notifier.shutdownNow();
+        waiters.forEach(waiter -> waiter.future.cancel(false));
+    }
+
+    // síncrono: entra na transação de quem publicou (save/update/delete do BookServiceImpl);
+    // fora de uma (write-behind) abre a sua
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        transaction.executeWithoutResult(status -> append(event));
+    }
+
+    private void append(BookChangedEvent event) {
+        BookChange change = BookChange.builder()
+                .type(event.getType())
+                .bookId(event.getBook().getId())
+                .version(event.getBook().getVersion())
+                .changedAt(Instant.now())
+                .build();
+        Long offset;
+        // reserva e registro em aberto juntos: o horizonte nunca passa de um offset já
+        // reservado que ainda não entrou no inFlight
+        synchronized (lock) {
+            entityManager.persist(change);
+            offset = change.getId();
+            inFlight.add(offset);
+            lastReserved = Math.max(lastReserved, offset);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inFlight.remove(offset);
+                if (status == STATUS_COMMITTED && !waiters.isEmpty()) {
+                    notifier.execute(BookChangeLog.this::notifyWaiters);
+                }
+            }
+        });
+    }
+
+    // maior offset que pode ser lido sem deixar buracos para trás
+    public long horizon() {
+        synchronized (lock) {
+            return inFlight.isEmpty() ? lastReserved : inFlight.first() - 1;
+        }
+    }
+
+    public List<BookChange> read(long after, int limit) {
+        long until = horizon();
+        if (until <= after) {
+            return List.of();
+        }
+        return repository.findRange(after, until, PageRequest.of(0, limit));
+    }
+
+    // completa quando houver registros depois de after; cancelar o future libera a espera
+    public CompletableFuture<List<BookChange>> poll(long after, int limit) {
+        List<BookChange> changes = read(after, limit);
+        if (!changes.isEmpty()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+        Waiter waiter = new Waiter(after, limit);
+        waiter.future.whenComplete((result, error) -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // um commit entre o read e o add não avisaria esta espera
+        if (horizon() > after) {
+            notifier.execute(this::notifyWaiters);
+        }
+        return waiter.future;
+    }
+
+    // uma única leitura a partir da menor espera serve todas as que caem na janela lida,
+    // cada uma recebe a sua fatia; só quem ficou depois do último registro lido (janela
+    // cortada pelo limite) dispara outra
+    private void notifyWaiters() {
+        long until = horizon();
+        List<Waiter> pending = new ArrayList<>();
+        for (Waiter waiter : waiters) {
+            if (waiter.after < until && !waiter.future.isDone()) {
+                pending.add(waiter);
+            }
+        }
+        while (!pending.isEmpty()) {
+            long from = pending.stream().mapToLong(waiter -> waiter.after).min().getAsLong();
+            int limit = pending.stream().mapToInt(waiter -> waiter.limit).max().getAsInt();
+            List<BookChange> changes;
+            try {
+                changes = repository.findRange(from, until, PageRequest.of(0, limit));
+            } catch (RuntimeException e) {
+                pending.forEach(waiter -> waiter.future.completeExceptionally(e));
+                return;
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            long last = changes.get(changes.size() - 1).getId();
+            List<Waiter> behind = new ArrayList<>();
+            for (Waiter waiter : pending) {
+                if (waiter.after < last) {
+                    waiter.future.complete(slice(changes, waiter));
+                } else {
+                    behind.add(waiter);
+                }
+            }
+            pending = changes.size() < limit ? List.of() : behind;
+        }
+    }
+
+    private static List<BookChange> slice(List<BookChange> changes, Waiter waiter) {
+        int from = 0;
+        while (changes.get(from).getId() <= waiter.after) {
+            from++;
+        }
+        return new ArrayList<>(changes.subList(from, Math.min(from + waiter.limit, changes.size())));
+    }
+
+    private static final class Waiter {
+
+        private final long after;
+        private final int limit;
+        private final CompletableFuture<List<BookChange>> future = new CompletableFuture<>();
+
+        private Waiter(long after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.emfsilva.api.library.coalescing;
+
+import io.github.emfsilva.api.library.cache.BookCache;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// single-flight das leituras do BookService: getById pelo id e find pelo filtro
+// normalizado mais o pageable. Independe do BookCache, que só coalesce enquanto a
+// entrada existe; o find nem passa por cache
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.single-flight.enabled", havingValue = "true")
+public class BookRequestCoalescer {
+
+    private final SingleFlight<Long, Optional<Book>> byId = new SingleFlight<>();
+    private final SingleFlight<FindKey, Page<Book>> find = new SingleFlight<>();
+    private final Counter byIdExecuted;
+    private final Counter byIdShared;
+    private final Counter findExecuted;
+    private final Counter findShared;
+
+    public BookRequestCoalescer(MeterRegistry registry) {
+        this.byIdExecuted = counter(registry, "getById", "executed");
+        this.byIdShared = counter(registry, "getById", "shared");
+        this.findExecuted = counter(registry, "find", "executed");
+        this.findShared = counter(registry, "find", "shared");
+    }
+
+    public Optional<Book> getById(Long id, Supplier<Optional<Book>> query) {
+        SingleFlight.Result<Optional<Book>> result = byId.execute(id, query);
+        (result.isShared() ? byIdShared : byIdExecuted).increment();
+        return result.getValue();
+    }
+
+    // a página é dividida entre as requisições: quem a recebe só lê (o controller mapeia
+    // para BookDTO), nunca altera os livros
+    public Page<Book> find(Book filter, Pageable pageable, Supplier<Page<Book>> query) {
+        SingleFlight.Result<Page<Book>> result = find.execute(new FindKey(filter, pageable), query);
+        (result.isShared() ? findShared : findExecuted).increment();
+        return result.getValue();
+    }
+
+    // antes da remoção do BookCache: senão uma requisição que chegasse entre as duas
+    // entraria na leitura ainda em andamento, de antes do commit, e recarregaria o cache
+    // com o livro velho
+    @Order(BookCache.EVICTION_ORDER - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBook().getId() != null) {
+            byId.forget(event.getBook().getId());
+        }
+        find.forgetAll();
+    }
+
+    @Order(BookCache.EVICTION_ORDER - 1)
+    @EventListener
+    public void onBookInvalidated(BookInvalidatedEvent event) {
+        byId.forget(event.getId());
+        find.forgetAll();
+    }
+
+    private static Counter counter(MeterRegistry registry, String operation, String outcome) {
+        return Counter.builder("library.book.single.flight")
+                .description("Leituras do BookService executadas no banco ou divididas com uma já em andamento")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // o Example do find ignora caixa: "Tolkien" e "tolkien" são a mesma consulta
+    static final class FindKey {
+
+        private final Long id;
+        private final String title;
+        private final String author;
+        private final String isbn;
+        private final Pageable pageable;
+
+        FindKey(Book filter, Pageable pageable) {
+            this.id = filter.getId();
+            this.title = lower(filter.getTitle());
+            this.author = lower(filter.getAuthor());
+            this.isbn = lower(filter.getIsbn());
+            this.pageable = pageable;
+        }
+
+        private static String lower(String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FindKey)) {
+                return false;
+            }
+            FindKey other = (FindKey) o;
+            return Objects.equals(id, other.id) && Objects.equals(title, other.title)
+                    && Objects.equals(author, other.author) && Objects.equals(isbn, other.isbn)
+                    && Objects.equals(pageable, other.pageable);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, title, author, isbn, pageable);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.emfsilva.api.library.config;
+
+import io.github.emfsilva.api.library.invalidation.BookInvalidationTransport;
+import io.github.emfsilva.api.library.invalidation.LoopbackInvalidationTransport;
+import io.github.emfsilva.api.library.invalidation.UdpInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.List;
+
+// transporte do BookInvalidationBus: library.invalidation.transport=udp (padrão) entre
+// instâncias, loopback para uma instância só ou testes
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.invalidation.enabled", havingValue = "true")
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "library.invalidation.transport", havingValue = "udp", matchIfMissing = true)
+    public BookInvalidationTransport udpInvalidationTransport(
+            @Value("${library.invalidation.udp.bind:127.0.0.1:9110}") String bind,
+            @Value("${library.invalidation.udp.peers:}") List<String> peers) {
+        return new UdpInvalidationTransport(UdpInvalidationTransport.address(bind),
+                UdpInvalidationTransport.addresses(peers));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.invalidation.transport", havingValue = "loopback")
+    public BookInvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.emfsilva.api.library.config;
+
+import io.github.emfsilva.api.library.json.BookJsonModule;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.mapper.DirectBookMapper;
+import io.github.emfsilva.api.library.mapper.ModelMapperBookMapper;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MapperConfig {
+
+    // library.mapper=modelmapper volta para o mapeamento reflexivo antigo
+    @Bean
+    @ConditionalOnProperty(name = "library.mapper", havingValue = "modelmapper")
+    public BookMapper modelMapperBookMapper(ModelMapper modelMapper) {
+        return new ModelMapperBookMapper(modelMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.mapper", havingValue = "direct", matchIfMissing = true)
+    public BookMapper directBookMapper() {
+        return new DirectBookMapper();
+    }
+
+    // registrado pelo Spring Boot no ObjectMapper do MVC e do WebFlux
+    @Bean
+    public BookJsonModule bookJsonModule() {
+        return new BookJsonModule();
+    }
+}
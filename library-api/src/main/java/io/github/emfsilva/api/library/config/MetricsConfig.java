@@ -0,0 +1,27 @@
+package io.github.emfsilva.api.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.metrics.TimedJacksonHttpMessageConverter;
+import io.github.emfsilva.api.library.metrics.TimedMethodAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class MetricsConfig {
+
+    // habilita o @Timed nos métodos do BookServiceImpl
+    @Bean
+    public TimedMethodAspect timedMethodAspect(MeterRegistry registry) {
+        return new TimedMethodAspect(registry);
+    }
+
+    // mesmo nome do bean do JacksonHttpMessageConvertersConfiguration, que deixa de ser criado
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   BookMetrics metrics) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, metrics.serialization());
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.emfsilva.api.library.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig {
+
+    // sem Hibernate no perfil reativo, o schema vem do script
+    @Bean
+    public ConnectionFactoryInitializer schemaInitializer(ConnectionFactory connectionFactory) {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("db/reactive/schema.sql")));
+        return initializer;
+    }
+
+    // o driver R2DBC do H2 executa o SQL na própria thread que assina; sem um scheduler
+    // próprio a consulta roda no event loop do Netty e, como o pool devolve a conexão
+    // na thread que a liberou, um único event loop acaba executando o SQL de todas as
+    // requisições e deixa de atender as conexões HTTP dele
+    @Bean(destroyMethod = "dispose")
+    public Scheduler databaseScheduler(@Value("${library.reactive.database-threads:10}") int threads) {
+        return Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, "r2dbc-database");
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.emfsilva.api.library.config;
+
+import io.github.emfsilva.api.library.migration.SchemaMigrator;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import javax.sql.DataSource;
+
+@Configuration
+@Profile("!reactive")
+public class SchemaMigrationConfig {
+
+    @Bean(initMethod = "migrate")
+    public SchemaMigrator schemaMigrator(DataSource dataSource, ResourcePatternResolver resolver) {
+        return new SchemaMigrator(dataSource, resolver);
+    }
+
+    // o Hibernate só valida o schema (ddl-auto=validate), então sobe depois das migrações
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.emfsilva.api.library.config;
+
+import io.github.emfsilva.api.library.threads.VirtualThreadRequestMappingHandlerAdapter;
+import io.github.emfsilva.api.library.threads.VirtualThreads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+// library.threads.virtual=true (JDK 21+): os métodos dos controllers rodam em virtual threads,
+// então requisições lentas não ocupam as threads do Tomcat (server.tomcat.threads.max).
+// Não é o executor do próprio Tomcat: no Tomcat 9.0.38 o SocketProcessorBase processa a
+// requisição inteira dentro de synchronized (socketWrapper), o que prende a virtual thread
+// à thread carregadora durante toda a espera pelo banco
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig implements WebMvcConfigurer {
+
+    // bean opcional com este nome substitui as virtual threads (ex.: um pool comum nos
+    // testes, que rodam em JDK 11); quem o declara é quem o encerra
+    public static final String EXECUTOR = "mvcHandlerExecutor";
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Duration requestTimeout;
+
+    // 0 = sem timeout, como nas requisições síncronas
+    public VirtualThreadsConfig(@Value("${library.threads.virtual.request-timeout:0}") Duration requestTimeout,
+                                @Qualifier(EXECUTOR) ObjectProvider<ExecutorService> executor) {
+        ExecutorService provided = executor.getIfAvailable();
+        this.executor = provided != null ? provided : VirtualThreads.newThreadPerTaskExecutor("mvc-virtual-");
+        this.ownsExecutor = provided == null;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Bean
+    public WebMvcRegistrations virtualThreadMvcRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new VirtualThreadRequestMappingHandlerAdapter();
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        configurer.setDefaultTimeout(requestTimeout.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.changelog.BookChangeLog;
+import io.github.emfsilva.api.library.model.dto.BookChangeDTO;
+import io.github.emfsilva.api.library.model.entity.BookChange;
+import io.github.emfsilva.api.library.model.pagination.ChangePage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// feed incremental do catálogo: o consumidor guarda o next de cada resposta e o manda
+// como after na seguinte. Com wait > 0 (segundos) é long-poll: sem alterações novas a
+// requisição fica parada (sem ocupar thread) até o próximo commit ou até o wait acabar
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.change-log.enabled", havingValue = "true")
+@RequestMapping("/api/books/changes")
+public class BookChangeController {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final BookChangeLog changeLog;
+    private final Duration maxWait;
+
+    public BookChangeController(BookChangeLog changeLog,
+                                @Value("${library.change-log.max-wait:30s}") Duration maxWait) {
+        this.changeLog = changeLog;
+        this.maxWait = maxWait;
+    }
+
+    @GetMapping
+    public DeferredResult<ChangePage<BookChangeDTO>> changes(@RequestParam(defaultValue = "0") long after,
+                                                             @RequestParam(defaultValue = "100") int limit,
+                                                             @RequestParam(defaultValue = "0") long wait) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long timeout = Math.max(0, Math.min(wait, maxWait.getSeconds())) * 1000;
+        ChangePage<BookChangeDTO> empty = new ChangePage<>(List.of(), after);
+        if (timeout == 0) {
+            DeferredResult<ChangePage<BookChangeDTO>> result = new DeferredResult<>();
+            result.setResult(page(changeLog.read(after, pageSize), after));
+            return result;
+        }
+        DeferredResult<ChangePage<BookChangeDTO>> result = new DeferredResult<>(timeout, empty);
+        CompletableFuture<List<BookChange>> changes = changeLog.poll(after, pageSize);
+        changes.whenComplete((found, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else if (found != null) {
+                result.setResult(page(found, after));
+            }
+        });
+        result.onCompletion(() -> changes.cancel(false));
+        return result;
+    }
+
+    private static ChangePage<BookChangeDTO> page(List<BookChange> changes, long after) {
+        List<BookChangeDTO> dtos = new ArrayList<>(changes.size());
+        for (BookChange change : changes) {
+            dtos.add(BookChangeDTO.builder()
+                    .offset(change.getId())
+                    .type(change.getType().name())
+                    .bookId(change.getBookId())
+                    .version(change.getVersion())
+                    .changedAt(change.getChangedAt())
+                    .build());
+        }
+        long next = changes.isEmpty() ? after : changes.get(changes.size() - 1).getId();
+        return new ChangePage<>(dtos, next);
+    }
+}
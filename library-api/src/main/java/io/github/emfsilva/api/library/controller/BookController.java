@@ -1,90 +1,293 @@
 package io.github.emfsilva.api.library.controller;
 
-import io.github.emfsilva.api.library.exception.ApiErrors;
+import io.github.emfsilva.api.library.cache.BookJsonCache;
 import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
+import io.github.emfsilva.api.library.model.dto.BookBatchItemDTO;
 import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.dto.BookLookupDTO;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
+import io.github.emfsilva.api.library.model.pagination.PageResponse;
 import io.github.emfsilva.api.library.service.BookService;
-import org.modelmapper.ModelMapper;
+import io.github.emfsilva.api.library.writebehind.BookWriteBehind;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindingResult;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/books")
 public class BookController {
 
+    static final int MAX_SCROLL_SIZE = 1000;
+    static final String LOTE_EXCEDIDO = "Lote excede o tamanho máximo de %d livros";
+    static final String LOOKUP_EXCEDIDO = "Consulta excede o máximo de %d ids";
+    static final String ID_NULO = "Lista de ids não pode conter nulos";
+    static final String CAMPO_DESCONHECIDO = "Campo desconhecido: %s";
+    static final String ITEM_NULO = "Item do lote não pode ser nulo";
+    static final Set<String> FIELDS = Set.of("id", "title", "author", "isbn");
+
     private final BookService service;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final Optional<BookJsonCache> jsonCache;
+    private final BookMetrics metrics;
+    private final boolean ifMatchRequired;
+    private final Optional<BookWriteBehind> writeBehind;
+    private final int maxLookupIds;
 
-    public BookController(BookService service, ModelMapper modelMapper) {
+    public BookController(BookService service, BookMapper bookMapper, Validator validator,
+                          @Value("${library.batch.max-size:5000}") int maxBatchSize,
+                          Optional<BookJsonCache> jsonCache, BookMetrics metrics,
+                          @Value("${library.books.if-match.required:false}") boolean ifMatchRequired,
+                          Optional<BookWriteBehind> writeBehind,
+                          @Value("${library.lookup.max-ids:10000}") int maxLookupIds) {
         this.service = service;
-        this.modelMapper = modelMapper;
+        this.bookMapper = bookMapper;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.jsonCache = jsonCache;
+        this.metrics = metrics;
+        this.ifMatchRequired = ifMatchRequired;
+        this.writeBehind = writeBehind;
+        this.maxLookupIds = maxLookupIds;
     }
 
+    // com o write-behind o livro ainda não está no banco: 202 com o id reservado, e o
+    // GET do Location responde 404 até o lote dele ser gravado
     @PostMapping
     public ResponseEntity<BookDTO> create(@RequestBody @Valid BookDTO dto) {
-        Book entity = modelMapper.map(dto, Book.class);
-        entity = service.save(entity);
-        BookDTO returnDTO = modelMapper.map(entity, BookDTO.class);
+        Book entity = bookMapper.toEntity(dto);
+        if (writeBehind.isPresent()) {
+            Book accepted = writeBehind.get().accept(entity);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/books/" + accepted.getId()))
+                    .body(bookMapper.toDto(accepted));
+        }
+        Book saved = service.save(entity);
+        BookDTO returnDTO = metrics.mapping(() -> bookMapper.toDto(saved));
         return ResponseEntity.status(HttpStatus.CREATED).body(returnDTO);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookBatchItemDTO>> createBatch(@RequestBody List<BookDTO> dtos) {
+        if (dtos.size() > maxBatchSize) {
+            throw new BusinessException(String.format(LOTE_EXCEDIDO, maxBatchSize));
+        }
+        BookBatchItemDTO[] items = new BookBatchItemDTO[dtos.size()];
+        List<Book> valid = new ArrayList<>(dtos.size());
+        List<Integer> validIndexes = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            if (dtos.get(i) == null) {
+                items[i] = rejected(i, null, List.of(ITEM_NULO));
+                continue;
+            }
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(dtos.get(i));
+            if (violations.isEmpty()) {
+                valid.add(bookMapper.toEntity(dtos.get(i)));
+                validIndexes.add(i);
+            } else {
+                List<String> errors = new ArrayList<>(violations.size());
+                violations.forEach(violation -> errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+                items[i] = rejected(i, dtos.get(i), errors);
+            }
+        }
+
+        List<BookBatchResult> results = valid.isEmpty() ? List.of() : service.saveAll(valid);
+        for (int j = 0; j < results.size(); j++) {
+            int index = validIndexes.get(j);
+            BookBatchResult result = results.get(j);
+            items[index] = result.isCreated()
+                    ? BookBatchItemDTO.builder().index(index).status(BookBatchItemDTO.Status.CREATED)
+                        .book(bookMapper.toDto(result.getBook())).build()
+                    : rejected(index, dtos.get(index), List.of(result.getError()));
+        }
+        return ResponseEntity.ok().body(List.of(items));
+    }
+
+    // com If-None-Match igual ao ETag a resposta é 304, sem mapear nem serializar a página;
+    // fields=id,title devolve só esses campos de cada livro, lidos só dessas colunas
     @GetMapping
-    public ResponseEntity<Page<BookDTO>> find(BookDTO bookDTO, Pageable pageable) {
-        Book filter = modelMapper.map(bookDTO, Book.class);
-        Page<Book> result = service.find(filter, pageable);
-        List<BookDTO> list = result.getContent().stream()
-                .map(entity -> modelMapper.map(entity, BookDTO.class))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok().body(new PageImpl<>(list,pageable, result.getTotalElements()));
+    public ResponseEntity<PageResponse<?>> find(BookDTO bookDTO, Pageable pageable,
+                                                @RequestParam(required = false) String fields,
+                                                WebRequest request) {
+        Book filter = bookMapper.toEntity(bookDTO);
+        Set<String> projection = fields == null ? null : parseFields(fields);
+        Page<Book> result = projection == null
+                ? service.find(filter, pageable)
+                : service.find(filter, projection, pageable);
+        String etag = BookETags.of(result);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        List<?> list = projection == null
+                ? metrics.mapping(() -> bookMapper.toDtoList(result.getContent()))
+                : project(result.getContent(), projection);
+        return ResponseEntity.ok().body(PageResponse.of(list, result));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<BookDTO>> scroll(BookDTO bookDTO,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      @RequestParam(defaultValue = "id") String sort,
+                                                      @RequestParam(defaultValue = "false") boolean count) {
+        Book filter = bookMapper.toEntity(bookDTO);
+        BookCursor bookCursor = cursor == null || cursor.isEmpty() ? BookCursor.first(sort) : BookCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        CursorPage<Book> result = service.scroll(filter, bookCursor, pageSize, count);
+        return ResponseEntity.ok().body(result.map(bookMapper::toDto));
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getById(@PathVariable Long id){
-        return ResponseEntity.ok().body(service.getById(id).map(book -> modelMapper.map(book, BookDTO.class))
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    public ResponseEntity<?> getById(@PathVariable Long id, WebRequest request){
+        if (jsonCache.isPresent()) {
+            BookJsonCache.Entry entry = jsonCache.get().get(id)
+                    .orElseThrow(this::notFound);
+            String etag = BookETags.of(entry.getVersion());
+            if (etag != null && request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(entry.getJson());
+        }
+        Book book = service.getById(id).orElseThrow(this::notFound);
+        String etag = BookETags.of(book);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().body(metrics.mapping(() -> bookMapper.toDto(book)));
+    }
+
+    // uma requisição no lugar de um GET /{id} por livro; POST porque a lista de ids
+    // pode passar do limite de tamanho de uma URL
+    @PostMapping("/lookup")
+    public ResponseEntity<BookLookupDTO> lookup(@RequestBody List<Long> ids) {
+        if (ids.size() > maxLookupIds) {
+            throw new BusinessException(String.format(LOOKUP_EXCEDIDO, maxLookupIds));
+        }
+        if (ids.contains(null)) {
+            throw new BusinessException(ID_NULO);
+        }
+        Map<Long, Book> found = service.getByIds(ids);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (!found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        List<BookDTO> books = metrics.mapping(() -> bookMapper.toDtoList(new ArrayList<>(found.values())));
+        return ResponseEntity.ok().body(BookLookupDTO.builder().books(books).missing(missing).build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<BookDTO> delete(@PathVariable Long id){
-        Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public ResponseEntity<BookDTO> delete(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Book book = service.getById(id).orElseThrow(this::notFound);
+        checkIfMatch(ifMatch, book);
         service.delete(book);
        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 
     }
 
+    // o If-Match é conferido com a versão lida aqui; uma escrita concorrente depois
+    // disso é barrada pelo @Version no banco (OptimisticLockingFailureException, 412)
     @PutMapping("/{id}")
-    public ResponseEntity<BookDTO> update(@PathVariable Long id, BookDTO bookDTO){
-        Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public ResponseEntity<BookDTO> update(@PathVariable Long id, BookDTO bookDTO,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Book book = service.getById(id).orElseThrow(this::notFound);
+        checkIfMatch(ifMatch, book);
         book.setAuthor(bookDTO.getAuthor());
         book.setTitle(bookDTO.getTitle());
         book = service.update(book);
-        return ResponseEntity.status(HttpStatus.OK).body(modelMapper.map(book, BookDTO.class));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        String etag = BookETags.of(book);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(bookMapper.toDto(book));
+    }
+
+    private Set<String> parseFields(String fields) {
+        Set<String> projection = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                if (!FIELDS.contains(name)) {
+                    throw new BusinessException(String.format(CAMPO_DESCONHECIDO, name));
+                }
+                projection.add(name);
+            }
+        }
+        if (projection.isEmpty()) {
+            throw new BusinessException(String.format(CAMPO_DESCONHECIDO, fields));
+        }
+        return projection;
+    }
+
+    private static List<Map<String, Object>> project(List<Book> books, Set<String> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(books.size());
+        for (Book book : books) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) {
+                switch (field) {
+                    case "id": row.put(field, book.getId()); break;
+                    case "title": row.put(field, book.getTitle()); break;
+                    case "author": row.put(field, book.getAuthor()); break;
+                    default: row.put(field, book.getIsbn());
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void checkIfMatch(String ifMatch, Book book) {
+        if (ifMatch == null) {
+            if (ifMatchRequired) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+            }
+            return;
+        }
+        if (!BookETags.matches(ifMatch, book)) {
+            // mesma resposta 412 do conflito detectado pelo banco (ApiExceptionHandler)
+            throw new OptimisticLockingFailureException("If-Match não confere com a versão " + book.getVersion());
+        }
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleValidationExceptions(MethodArgumentNotValidException ex) {
-        BindingResult bindingResult = ex.getBindingResult();
-        return new ApiErrors(bindingResult);
+    private ResponseStatusException notFound() {
+        metrics.notFound();
+        return new ResponseStatusException(HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler(BusinessException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleBusinessExceptions(BusinessException ex) {
-        return new ApiErrors(ex);
+    private BookBatchItemDTO rejected(int index, BookDTO dto, List<String> errors) {
+        return BookBatchItemDTO.builder().index(index).status(BookBatchItemDTO.Status.REJECTED)
+                .book(dto).errors(errors).build();
     }
 
 }
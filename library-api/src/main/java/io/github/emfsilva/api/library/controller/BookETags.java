@@ -0,0 +1,46 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.CountedPage;
+import org.springframework.data.domain.Page;
+
+// ETags a partir do @Version do livro: o de um livro é forte ("<versão>") e serve
+// para o If-Match; o de uma página é fraco e resume total, ids e versões do conteúdo
+final class BookETags {
+
+    private BookETags() {
+    }
+
+    static String of(Book book) {
+        return of(book.getVersion());
+    }
+
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    static String of(Page<Book> page) {
+        // o mesmo total estimado e depois contado são respostas diferentes (totalExact)
+        long hash = 31 * page.getTotalElements() + (CountedPage.isTotalExact(page) ? 1 : 0);
+        for (Book book : page.getContent()) {
+            if (book.getVersion() == null) {
+                return null;
+            }
+            hash = 31 * hash + book.getId();
+            hash = 31 * hash + book.getVersion();
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    // comparação forte (RFC 7232): um ETag fraco no If-Match nunca confere
+    static boolean matches(String ifMatch, Book book) {
+        String etag = of(book);
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.emfsilva.api.library.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.service.BookService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// escreve cada livro direto na resposta assim que sai do cursor do banco;
+// nenhuma página ou lista do catálogo é montada em memória
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/books/export")
+public class BookExportController {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private final BookService service;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter csvWriter;
+
+    public BookExportController(BookService service, BookMapper bookMapper, ObjectMapper objectMapper) {
+        this.service = service;
+        this.bookMapper = bookMapper;
+        this.objectMapper = objectMapper;
+        // o flush por registro viraria um chunk http por livro
+        this.jsonWriter = objectMapper.writerFor(BookDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        CsvMapper csvMapper = new CsvMapper();
+        CsvSchema schema = CsvSchema.builder()
+                .addColumn("id")
+                .addColumn("title")
+                .addColumn("author")
+                .addColumn("isbn")
+                .build()
+                .withHeader();
+        this.csvWriter = csvMapper.writerFor(BookDTO.class).with(schema)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @GetMapping
+    public void exportNdjson(BookDTO bookDTO, HttpServletResponse response) throws IOException {
+        start(response, NDJSON, "books.ndjson");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // o separador é a quebra de linha, não o espaço padrão entre valores raiz
+            generator.setRootValueSeparator(null);
+            export(bookDTO, dto -> {
+                jsonWriter.writeValue(generator, dto);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    @GetMapping(params = "format=csv")
+    public void exportCsv(BookDTO bookDTO, HttpServletResponse response) throws IOException {
+        start(response, CSV, "books.csv");
+        try (SequenceWriter writer = csvWriter.writeValues(response.getOutputStream())) {
+            export(bookDTO, writer::write);
+        }
+    }
+
+    private void start(HttpServletResponse response, String contentType, String fileName) {
+        response.setContentType(contentType);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+    }
+
+    private void export(BookDTO bookDTO, BookWriter writer) throws IOException {
+        try {
+            service.export(bookMapper.toEntity(bookDTO), book -> {
+                try {
+                    writer.write(bookMapper.toDto(book));
+                } catch (IOException e) {
+                    // cliente desconectou: interrompe o stream e fecha o cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BookWriter {
+        void write(BookDTO dto) throws IOException;
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.model.batch.BookImportReport;
+import io.github.emfsilva.api.library.service.BookImportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/books/import")
+public class BookImportController {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private final BookImportService importService;
+
+    public BookImportController(BookImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = NDJSON)
+    public ResponseEntity<BookImportReport> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok().body(importService.importNdjson(body));
+    }
+
+    @PostMapping(consumes = CSV)
+    public ResponseEntity<BookImportReport> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok().body(importService.importCsv(body));
+    }
+}
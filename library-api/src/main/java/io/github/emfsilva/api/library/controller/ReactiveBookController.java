@@ -0,0 +1,80 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.PageResponse;
+import io.github.emfsilva.api.library.service.ReactiveBookService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+// mesmo contrato do BookController para o CRUD e a busca paginada, sobre WebFlux
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+    private final ReactiveBookService service;
+    private final BookMapper bookMapper;
+    private final BookMetrics metrics;
+
+    public ReactiveBookController(ReactiveBookService service, BookMapper bookMapper, BookMetrics metrics) {
+        this.service = service;
+        this.bookMapper = bookMapper;
+        this.metrics = metrics;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BookDTO>> create(@RequestBody @Valid BookDTO dto) {
+        return service.save(bookMapper.toEntity(dto))
+                .map(book -> ResponseEntity.status(HttpStatus.CREATED).body(bookMapper.toDto(book)));
+    }
+
+    @GetMapping
+    public Mono<PageResponse<BookDTO>> find(BookDTO bookDTO, Pageable pageable) {
+        return service.find(bookMapper.toEntity(bookDTO), pageable)
+                .map(result -> PageResponse.of(bookMapper.toDtoList(result.getContent()), result));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<BookDTO> getById(@PathVariable Long id) {
+        return service.getById(id)
+                .switchIfEmpty(notFound())
+                .map(bookMapper::toDto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return service.getById(id)
+                .switchIfEmpty(notFound())
+                .flatMap(service::delete)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<BookDTO> update(@PathVariable Long id, BookDTO bookDTO) {
+        return service.getById(id)
+                .switchIfEmpty(notFound())
+                .flatMap(book -> {
+                    book.setAuthor(bookDTO.getAuthor());
+                    book.setTitle(bookDTO.getTitle());
+                    return service.update(book);
+                })
+                .map(bookMapper::toDto);
+    }
+
+    private Mono<Book> notFound() {
+        return Mono.defer(() -> {
+            metrics.notFound();
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        });
+    }
+}
@@ -0,0 +1,270 @@
+package io.github.emfsilva.api.library.count;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.CountedPage;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// total das páginas do find sem pagar o count(*) na latência: o count roda em paralelo
+// com a consulta do conteúdo, numa conexão própria, e fica guardado por filtro durante o
+// ttl (removido a cada alteração de livro, então o guardado continua exato). Se não
+// terminar até max-wait depois do conteúdo, a página sai com um total estimado
+// (totalExact=false) e o count segue em segundo plano para as próximas requisições
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.count.async.enabled", havingValue = "true")
+public class BookCounter {
+
+    // ROW_COUNT_ESTIMATE é mantido pelo H2 sem percorrer a tabela; em outro banco a
+    // consulta falha e a estimativa sem filtro fica só com o que a página mostra
+    static final String TABLE_ROWS = "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES "
+            + "where TABLE_SCHEMA = SCHEMA() and TABLE_NAME = 'BOOK'";
+
+    private final BookRepository repository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnly;
+    private final ThreadPoolExecutor executor;
+    private final AsyncCache<FilterKey, Long> counts;
+    // última contagem de cada filtro, sem ttl nem remoção: só serve de estimativa
+    private final Cache<FilterKey, Long> lastCounts;
+    private final long maxWaitNanos;
+    private final long tableRowsTtlNanos;
+    private volatile TableRows tableRows = new TableRows(-1, 0);
+    private final Counter fromContent;
+    private final Counter cached;
+    private final Counter counted;
+    private final Counter estimated;
+
+    public BookCounter(BookRepository repository, JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                       MeterRegistry registry,
+                       @Value("${library.count.threads:4}") int threads,
+                       @Value("${library.count.queue-capacity:100}") int queueCapacity,
+                       @Value("${library.count.ttl:30s}") Duration ttl,
+                       @Value("${library.count.max-wait:25ms}") Duration maxWait,
+                       @Value("${library.count.maximum-size:10000}") long maximumSize) {
+        this.repository = repository;
+        this.jdbc = jdbc;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        AtomicInteger sequence = new AtomicInteger();
+        // fila limitada: com o banco lento os counts não se acumulam, a página sai estimada
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "book-count-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // o executor dos counts fica fora do Caffeine: a manutenção do cache não pode ser
+        // recusada pela fila cheia
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.lastCounts = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.tableRowsTtlNanos = ttl.toNanos();
+        this.fromContent = counter(registry, "content");
+        this.cached = counter(registry, "cached");
+        this.counted = counter(registry, "counted");
+        this.estimated = counter(registry, "estimated");
+    }
+
+    // o count começa antes do conteúdo; quem chama roda o conteúdo na própria transação
+    public Page<Book> page(Book filter, Pageable pageable, Supplier<List<Book>> contentQuery) {
+        FilterKey key = new FilterKey(filter);
+        CompletableFuture<Long> count = count(key);
+        boolean wasCached = count != null && count.isDone() && !count.isCompletedExceptionally();
+        List<Book> content = contentQuery.get();
+
+        // como no PageableExecutionUtils: numa página incompleta o total sai do próprio conteúdo
+        if (pageable.isUnpaged()) {
+            fromContent.increment();
+            return new CountedPage<>(content, pageable, content.size(), true);
+        }
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            fromContent.increment();
+            return new CountedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+
+        Long total = await(count);
+        if (total != null) {
+            (wasCached ? cached : counted).increment();
+            return new CountedPage<>(content, pageable, total, true);
+        }
+        estimated.increment();
+        return new CountedPage<>(content, pageable, estimate(key, pageable, content), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        counts.synchronous().invalidateAll();
+    }
+
+    @EventListener
+    public void onBookInvalidated(BookInvalidatedEvent event) {
+        counts.synchronous().invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // null quando a fila de counts está cheia
+    private CompletableFuture<Long> count(FilterKey key) {
+        try {
+            return counts.get(key, (k, cacheExecutor) -> CompletableFuture.supplyAsync(() -> {
+                Long total = readOnly.execute(tx -> repository.countMatching(k.toFilter()));
+                lastCounts.put(k, total);
+                return total;
+            }, executor));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private Long await(CompletableFuture<Long> count) {
+        if (count == null) {
+            return null;
+        }
+        try {
+            return count.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Falha no count de livros", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // a última contagem do filtro (ou, sem filtro, a estatística da tabela), ajustada ao
+    // que a página mostra: uma página cheia garante ao menos offset + tamanho + 1 livros,
+    // uma vazia depois do fim garante no máximo o offset
+    private long estimate(FilterKey key, Pageable pageable, List<Book> content) {
+        Long last = lastCounts.getIfPresent(key);
+        long estimate = last != null ? last : key.isEmpty() ? tableRows() : -1;
+        if (content.isEmpty()) {
+            return Math.max(0, Math.min(estimate, pageable.getOffset()));
+        }
+        return Math.max(estimate, pageable.getOffset() + content.size() + 1);
+    }
+
+    private long tableRows() {
+        TableRows current = tableRows;
+        long now = System.nanoTime();
+        if (current.readAt != 0 && now - current.readAt < tableRowsTtlNanos) {
+            return current.rows;
+        }
+        long rows;
+        try {
+            Long estimate = jdbc.queryForObject(TABLE_ROWS, Long.class);
+            rows = estimate == null ? -1 : estimate;
+        } catch (DataAccessException e) {
+            rows = -1;
+        }
+        tableRows = new TableRows(rows, now);
+        return rows;
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("library.book.count")
+                .description("Origem do total das páginas do find: do conteúdo, guardado, contado ou estimado")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static final class TableRows {
+
+        private final long rows;
+        private final long readAt;
+
+        private TableRows(long rows, long readAt) {
+            this.rows = rows;
+            this.readAt = readAt;
+        }
+    }
+
+    // o count ignora caixa: o filtro é guardado em minúsculas e é dele que sai a consulta
+    static final class FilterKey {
+
+        private final Long id;
+        private final String title;
+        private final String author;
+        private final String isbn;
+
+        FilterKey(Book filter) {
+            this.id = filter.getId();
+            this.title = lower(filter.getTitle());
+            this.author = lower(filter.getAuthor());
+            this.isbn = lower(filter.getIsbn());
+        }
+
+        Book toFilter() {
+            return Book.builder().id(id).title(title).author(author).isbn(isbn).build();
+        }
+
+        boolean isEmpty() {
+            return id == null && title == null && author == null && isbn == null;
+        }
+
+        private static String lower(String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FilterKey)) {
+                return false;
+            }
+            FilterKey other = (FilterKey) o;
+            return Objects.equals(id, other.id) && Objects.equals(title, other.title) && Objects.equals(author, other.author)
+                    && Objects.equals(isbn, other.isbn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, title, author, isbn);
+        }
+    }
+}
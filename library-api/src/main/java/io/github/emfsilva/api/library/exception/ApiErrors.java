@@ -22,6 +22,10 @@ public class ApiErrors {
         this.errors = List.of(ex.getMessage());
     }
 
+    public ApiErrors(String message) {
+        this.errors = List.of(message);
+    }
+
     public List<String> getErrors() {
         return errors;
     }
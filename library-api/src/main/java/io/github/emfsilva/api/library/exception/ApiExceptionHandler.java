@@ -0,0 +1,63 @@
+package io.github.emfsilva.api.library.exception;
+
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.writebehind.WriteBehindQueueFullException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    static final String VERSAO_DIVERGENTE = "O livro foi alterado por outra requisição";
+
+    private final BookMetrics metrics;
+
+    public ApiExceptionHandler(BookMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleValidationExceptions(MethodArgumentNotValidException ex) {
+        BindingResult bindingResult = ex.getBindingResult();
+        return new ApiErrors(bindingResult);
+    }
+
+    // equivalente do MethodArgumentNotValidException no perfil reactive
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleReactiveValidationExceptions(WebExchangeBindException ex) {
+        return new ApiErrors(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleBusinessExceptions(BusinessException ex) {
+        metrics.businessError();
+        return new ApiErrors(ex);
+    }
+
+    // update/delete de uma versão que já não é a do banco: outra escrita chegou antes
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrors handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return new ApiErrors(VERSAO_DIVERGENTE);
+    }
+
+    // backpressure do write-behind: o cliente reenvia depois do Retry-After
+    @ExceptionHandler(WriteBehindQueueFullException.class)
+    public ResponseEntity<ApiErrors> handleWriteBehindQueueFull(WriteBehindQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrors(ex.getMessage()));
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+// mensagem do barramento: a instância de origem e o id do livro alterado, em 21 bytes
+public final class BookInvalidation {
+
+    static final int MAGIC = 0x424B4956;
+    static final byte VERSION = 1;
+    static final int SIZE = Integer.BYTES + 1 + Long.BYTES + Long.BYTES;
+
+    private final long node;
+    private final long bookId;
+
+    public BookInvalidation(long node, long bookId) {
+        this.node = node;
+        this.bookId = bookId;
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC).put(VERSION).putLong(node).putLong(bookId);
+        return buffer.flip();
+    }
+
+    // null para o que não for uma mensagem do barramento (outro programa na mesma porta)
+    public static BookInvalidation decode(ByteBuffer buffer) {
+        if (buffer.remaining() != SIZE) {
+            return null;
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return null;
+            }
+            return new BookInvalidation(buffer.getLong(), buffer.getLong());
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BookInvalidation(node=" + node + ", bookId=" + bookId + ")";
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+
+// coerência entre instâncias: cada alteração confirmada aqui vira uma mensagem com o id
+// do livro, e cada mensagem de outra instância vira um BookInvalidatedEvent local, que
+// os caches, o single-flight, o count e o índice de busca escutam
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.invalidation.enabled", havingValue = "true")
+public class BookInvalidationBus {
+
+    private final BookInvalidationTransport transport;
+    private final ApplicationEventPublisher publisher;
+    // identifica as mensagens desta instância, que voltam pelo loopback ou pela lista de peers
+    private final long node = new SecureRandom().nextLong();
+    private final Counter sent;
+    private final Counter received;
+
+    public BookInvalidationBus(BookInvalidationTransport transport, ApplicationEventPublisher publisher,
+                               MeterRegistry registry) {
+        this.transport = transport;
+        this.publisher = publisher;
+        this.sent = counter(registry, "sent");
+        this.received = counter(registry, "received");
+    }
+
+    // só com o contexto pronto: antes disso os caches, o count e o índice ainda não escutam
+    // o BookInvalidatedEvent. O que chegar antes espera no buffer do socket (a porta já
+    // está aberta), e o envio funciona desde a criação
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transport.start(this::receive);
+    }
+
+    // depois do commit: o peer que recarregar o livro já lê a versão nova
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBook().getId() != null) {
+            transport.send(new BookInvalidation(node, event.getBook().getId()));
+            sent.increment();
+        }
+    }
+
+    void receive(BookInvalidation invalidation) {
+        if (invalidation.getNode() == node) {
+            return;
+        }
+        received.increment();
+        publisher.publishEvent(new BookInvalidatedEvent(invalidation.getBookId()));
+    }
+
+    private static Counter counter(MeterRegistry registry, String direction) {
+        return Counter.builder("library.book.invalidation")
+                .description("Invalidações de livros enviadas às outras instâncias e recebidas delas")
+                .tag("direction", direction)
+                .register(registry);
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+// como as invalidações chegam às outras instâncias; a entrega é no máximo uma vez e sem
+// ordem garantida, o expire-after-write dos caches cobre o que se perder
+public interface BookInvalidationTransport extends Closeable {
+
+    void send(BookInvalidation invalidation);
+
+    // as mensagens recebidas, inclusive as enviadas pela própria instância
+    void start(Consumer<BookInvalidation> receiver);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,49 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// transporte dentro da JVM: cada instância do grupo recebe, na thread de quem enviou,
+// tudo o que o grupo envia. Para testes com vários nós no mesmo processo, e para uma
+// instância sozinha
+public class LoopbackInvalidationTransport implements BookInvalidationTransport {
+
+    private final List<LoopbackInvalidationTransport> group;
+    private volatile Consumer<BookInvalidation> receiver;
+
+    public LoopbackInvalidationTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private LoopbackInvalidationTransport(List<LoopbackInvalidationTransport> group) {
+        this.group = group;
+        group.add(this);
+    }
+
+    // outro nó no mesmo grupo
+    public LoopbackInvalidationTransport join() {
+        return new LoopbackInvalidationTransport(group);
+    }
+
+    @Override
+    public void send(BookInvalidation invalidation) {
+        for (LoopbackInvalidationTransport member : group) {
+            Consumer<BookInvalidation> current = member.receiver;
+            if (current != null) {
+                current.accept(invalidation);
+            }
+        }
+    }
+
+    @Override
+    public void start(Consumer<BookInvalidation> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void close() {
+        group.remove(this);
+        receiver = null;
+    }
+}
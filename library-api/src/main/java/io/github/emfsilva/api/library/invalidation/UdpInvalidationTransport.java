@@ -0,0 +1,108 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// um datagrama por invalidação para cada peer da lista, sem conexão nem confirmação:
+// um peer fora do ar só perde as mensagens. A lista pode ser a mesma em todas as
+// instâncias, incluindo a própria (o barramento ignora o que ele mesmo enviou)
+@Slf4j
+public class UdpInvalidationTransport implements BookInvalidationTransport {
+
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+    private Thread receiverThread;
+
+    public UdpInvalidationTransport(InetSocketAddress bind, List<InetSocketAddress> peers) {
+        try {
+            this.channel = DatagramChannel.open().bind(bind);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir a porta UDP " + bind, e);
+        }
+        this.peers = List.copyOf(peers);
+    }
+
+    // "host:porta"
+    public static InetSocketAddress address(String value) {
+        int colon = value.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Endereço sem porta: " + value);
+        }
+        return new InetSocketAddress(value.substring(0, colon).trim(), Integer.parseInt(value.substring(colon + 1).trim()));
+    }
+
+    public static List<InetSocketAddress> addresses(List<String> values) {
+        List<InetSocketAddress> addresses = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (!value.isBlank()) {
+                addresses.add(address(value));
+            }
+        }
+        return addresses;
+    }
+
+    public SocketAddress getLocalAddress() {
+        try {
+            return channel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void send(BookInvalidation invalidation) {
+        ByteBuffer message = invalidation.encode();
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(message.duplicate(), peer);
+            } catch (IOException e) {
+                log.debug("Invalidação não enviada para {}: {}", peer, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start(Consumer<BookInvalidation> receiver) {
+        receiverThread = new Thread(() -> receive(receiver), "book-invalidation-udp");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Falha ao fechar a porta UDP: {}", e.toString());
+        }
+    }
+
+    private void receive(Consumer<BookInvalidation> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(BookInvalidation.SIZE + 1);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+                BookInvalidation invalidation = BookInvalidation.decode(buffer);
+                if (invalidation != null) {
+                    receiver.accept(invalidation);
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Falha ao processar invalidação recebida", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.emfsilva.api.library.isbn;
+
+import io.github.emfsilva.api.library.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// visão em memória dos isbns: o bloom filter evita o existsByIsbn quando o isbn
+// certamente não existe e as reservas barram criações concorrentes do mesmo isbn;
+// a constraint unique da tabela continua sendo a garantia final
+@Slf4j
+@Component
+@Profile("!reactive")
+public class IsbnRegistry {
+
+    private final BookRepository repository;
+    private final IsbnBloomFilter bloomFilter;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public IsbnRegistry(BookRepository repository,
+                        @Value("${library.isbn.expected-insertions:1000000}") long expectedInsertions,
+                        @Value("${library.isbn.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.bloomFilter = new IsbnBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try (Stream<String> isbns = repository.streamAllIsbns()) {
+            isbns.forEach(this::register);
+        }
+        ready = true;
+        log.info("Registro de isbn carregado em {} ms", System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // até o carregamento terminar tudo pode existir, e a consulta ao banco é obrigatória
+    public boolean mightExist(String isbn) {
+        return !ready || isbn == null || bloomFilter.mightContain(isbn);
+    }
+
+    public boolean reserve(String isbn) {
+        return isbn == null || inFlight.add(isbn);
+    }
+
+    public void release(String isbn) {
+        if (isbn != null) {
+            inFlight.remove(isbn);
+        }
+    }
+
+    public void register(String isbn) {
+        if (isbn != null) {
+            bloomFilter.put(isbn);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.emfsilva.api.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.pagination.PageResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+// escrita do BookDTO e da PageResponse sem o BeanSerializer: os nomes dos campos já vão
+// codificados em UTF-8 (SerializedString) e são copiados direto para o buffer reciclado
+// do JsonGenerator, que no Spring MVC escreve no stream da resposta. Mesmo json de antes
+public class BookJsonModule extends SimpleModule {
+
+    public BookJsonModule() {
+        super("BookJsonModule");
+        addSerializer(new BookDTOSerializer());
+        addSerializer(new PageResponseSerializer());
+    }
+
+    static final class BookDTOSerializer extends StdSerializer<BookDTO> {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString TITLE = new SerializedString("title");
+        private static final SerializedString AUTHOR = new SerializedString("author");
+        private static final SerializedString ISBN = new SerializedString("isbn");
+
+        BookDTOSerializer() {
+            super(BookDTO.class);
+        }
+
+        @Override
+        public void serialize(BookDTO dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            gen.writeFieldName(ID);
+            if (dto.getId() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(dto.getId());
+            }
+            // writeString(null) escreve null
+            gen.writeFieldName(TITLE);
+            gen.writeString(dto.getTitle());
+            gen.writeFieldName(AUTHOR);
+            gen.writeString(dto.getAuthor());
+            gen.writeFieldName(ISBN);
+            gen.writeString(dto.getIsbn());
+            gen.writeEndObject();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    static final class PageResponseSerializer extends StdSerializer<PageResponse> {
+
+        private static final SerializedString CONTENT = new SerializedString("content");
+        private static final SerializedString NUMBER = new SerializedString("number");
+        private static final SerializedString SIZE = new SerializedString("size");
+        private static final SerializedString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+        private static final SerializedString TOTAL_ELEMENTS = new SerializedString("totalElements");
+        private static final SerializedString TOTAL_EXACT = new SerializedString("totalExact");
+        private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+        private static final SerializedString FIRST = new SerializedString("first");
+        private static final SerializedString LAST = new SerializedString("last");
+        private static final SerializedString EMPTY = new SerializedString("empty");
+
+        private final BookDTOSerializer books = new BookDTOSerializer();
+
+        PageResponseSerializer() {
+            super(PageResponse.class);
+        }
+
+        // livros pelo serializador acima, sem busca por item; as linhas do fields= (mapas)
+        // pelo serializador padrão
+        @Override
+        public void serialize(PageResponse page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(CONTENT);
+            List<?> content = page.getContent();
+            gen.writeStartArray();
+            for (Object item : content) {
+                if (item instanceof BookDTO) {
+                    books.serialize((BookDTO) item, gen, provider);
+                } else {
+                    provider.defaultSerializeValue(item, gen);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeFieldName(NUMBER);
+            gen.writeNumber(page.getNumber());
+            gen.writeFieldName(SIZE);
+            gen.writeNumber(page.getSize());
+            gen.writeFieldName(NUMBER_OF_ELEMENTS);
+            gen.writeNumber(page.getNumberOfElements());
+            gen.writeFieldName(TOTAL_ELEMENTS);
+            gen.writeNumber(page.getTotalElements());
+            gen.writeFieldName(TOTAL_EXACT);
+            gen.writeBoolean(page.isTotalExact());
+            gen.writeFieldName(TOTAL_PAGES);
+            gen.writeNumber(page.getTotalPages());
+            gen.writeFieldName(FIRST);
+            gen.writeBoolean(page.isFirst());
+            gen.writeFieldName(LAST);
+            gen.writeBoolean(page.isLast());
+            gen.writeFieldName(EMPTY);
+            gen.writeBoolean(page.isEmpty());
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.emfsilva.api.library.mapper;
+
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface BookMapper {
+
+    Book toEntity(BookDTO dto);
+
+    BookDTO toDto(Book book);
+
+    default List<BookDTO> toDtoList(List<Book> books) {
+        List<BookDTO> list = new ArrayList<>(books.size());
+        for (Book book : books) {
+            list.add(toDto(book));
+        }
+        return list;
+    }
+}
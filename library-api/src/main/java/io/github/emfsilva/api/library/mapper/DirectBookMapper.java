@@ -0,0 +1,23 @@
+package io.github.emfsilva.api.library.mapper;
+
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+
+public class DirectBookMapper implements BookMapper {
+
+    @Override
+    public Book toEntity(BookDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        return Book.builder().id(dto.getId()).title(dto.getTitle()).author(dto.getAuthor()).isbn(dto.getIsbn()).build();
+    }
+
+    @Override
+    public BookDTO toDto(Book book) {
+        if (book == null) {
+            return null;
+        }
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.emfsilva.api.library.mapper;
+
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import org.modelmapper.ModelMapper;
+
+public class ModelMapperBookMapper implements BookMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperBookMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public Book toEntity(BookDTO dto) {
+        return modelMapper.map(dto, Book.class);
+    }
+
+    @Override
+    public BookDTO toDto(Book book) {
+        return modelMapper.map(book, BookDTO.class);
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.emfsilva.api.library.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// medidores registrados uma única vez; nos caminhos quentes só há o record,
+// sem busca por nome e tags no registry a cada chamada
+@Component
+public class BookMetrics {
+
+    private final Timer existsByIsbn;
+    private final Timer findByExample;
+    private final Timer mapping;
+    private final Timer serialization;
+    private final Counter businessErrors;
+    private final Counter notFound;
+
+    public BookMetrics(MeterRegistry registry) {
+        this.existsByIsbn = Timer.builder("library.book.query")
+                .description("Consultas ao banco feitas pelo BookService")
+                .tag("query", "existsByIsbn")
+                .register(registry);
+        this.findByExample = Timer.builder("library.book.query")
+                .description("Consultas ao banco feitas pelo BookService")
+                .tag("query", "findByExample")
+                .register(registry);
+        this.mapping = Timer.builder("library.book.mapping")
+                .description("Conversão entre Book e BookDTO no BookController")
+                .register(registry);
+        this.serialization = Timer.builder("library.http.serialization")
+                .description("Escrita do corpo json das respostas")
+                .register(registry);
+        this.businessErrors = Counter.builder("library.book.business.errors")
+                .description("Requisições recusadas com BusinessException")
+                .register(registry);
+        this.notFound = Counter.builder("library.book.not.found")
+                .description("Requisições por um livro inexistente")
+                .register(registry);
+    }
+
+    public <T> T existsByIsbn(Supplier<T> query) {
+        return existsByIsbn.record(query);
+    }
+
+    public <T> T findByExample(Supplier<T> query) {
+        return findByExample.record(query);
+    }
+
+    public <T> T mapping(Supplier<T> mapping) {
+        return this.mapping.record(mapping);
+    }
+
+    public Timer serialization() {
+        return serialization;
+    }
+
+    public void businessError() {
+        businessErrors.increment();
+    }
+
+    public void notFound() {
+        notFound.increment();
+    }
+}
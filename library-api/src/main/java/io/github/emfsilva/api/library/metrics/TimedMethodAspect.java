@@ -0,0 +1,50 @@
+package io.github.emfsilva.api.library.metrics;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// alternativa ao TimedAspect do Micrometer, que monta o Meter.Id e procura o timer
+// no registry a cada chamada (alguns microssegundos, mais que o getById com cache);
+// aqui o timer de cada método é resolvido uma vez e a chamada só faz o record
+@Aspect
+public class TimedMethodAspect {
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedMethodAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(@io.micrometer.core.annotation.Timed * *.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, this::register);
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(Method method) {
+        Timed timed = method.getAnnotation(Timed.class);
+        return Timer.builder(timed.value())
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .register(registry);
+    }
+}
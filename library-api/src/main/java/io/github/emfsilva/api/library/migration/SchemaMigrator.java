@@ -0,0 +1,149 @@
+package io.github.emfsilva.api.library.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// migrações versionadas no formato do Flyway (db/migration/V<versão>__<descrição>.sql):
+// cada script pendente roda uma vez, em ordem, e fica registrado em schema_version com
+// o checksum; um script já aplicado que foi alterado impede a subida. Instâncias que
+// sobem juntas se revezam por um lock de linha em schema_version_lock, pego antes de ler
+// o histórico e solto depois da última migração: a segunda espera e já encontra tudo
+// aplicado
+@Slf4j
+public class SchemaMigrator {
+
+    static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final DataSource dataSource;
+    private final ResourcePatternResolver resolver;
+
+    public SchemaMigrator(DataSource dataSource, ResourcePatternResolver resolver) {
+        this.dataSource = dataSource;
+        this.resolver = resolver;
+    }
+
+    public void migrate() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists schema_version_lock (id int primary key)");
+        if (jdbc.queryForObject("select count(*) from schema_version_lock", Integer.class) == 0) {
+            try {
+                jdbc.update("insert into schema_version_lock (id) values (1)");
+            } catch (DataIntegrityViolationException e) {
+                // outra instância criou a linha ao mesmo tempo
+            }
+        }
+        try (Connection lock = lock()) {
+            migrate(jdbc);
+            lock.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha no lock das migrações de schema", e);
+        }
+    }
+
+    // transação própria numa conexão à parte, aberta enquanto as migrações rodam nas outras
+    private Connection lock() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeQuery("select id from schema_version_lock where id = 1 for update").close();
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private void migrate(JdbcTemplate jdbc) {
+        jdbc.execute("create table if not exists schema_version ("
+                + "version int primary key, description varchar(200) not null, "
+                + "checksum bigint not null, installed_on timestamp not null)");
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbc.query("select version, checksum from schema_version",
+                row -> {
+                    applied.put(row.getInt("version"), row.getLong("checksum"));
+                });
+
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        int count = 0;
+        for (Migration migration : migrations()) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migração V" + migration.version + " alterada depois de aplicada: "
+                            + migration.script.getFilename());
+                }
+                continue;
+            }
+            transaction.executeWithoutResult(status -> {
+                ScriptUtils.executeSqlScript(DataSourceUtils.getConnection(dataSource), migration.script);
+                jdbc.update("insert into schema_version (version, description, checksum, installed_on) values (?, ?, ?, ?)",
+                        migration.version, migration.description, migration.checksum, Timestamp.from(Instant.now()));
+            });
+            count++;
+        }
+        if (count > 0) {
+            log.info("{} migrações de schema aplicadas", count);
+        }
+    }
+
+    private List<Migration> migrations() {
+        try {
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource script : resolver.getResources(LOCATION)) {
+                Matcher matcher = NAME.matcher(script.getFilename());
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Nome de migração inválido: " + script.getFilename());
+                }
+                CRC32 crc = new CRC32();
+                crc.update(StreamUtils.copyToByteArray(script.getInputStream()));
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), crc.getValue(), script));
+            }
+            migrations.sort(Comparator.comparingInt(migration -> migration.version));
+            return migrations;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Migration {
+
+        private final int version;
+        private final String description;
+        private final long checksum;
+        private final Resource script;
+
+        Migration(int version, String description, long checksum, Resource script) {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.script = script;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.emfsilva.api.library.model.batch;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookBatchResult {
+
+    private final Book book;
+    private final String error;
+
+    public static BookBatchResult created(Book book) {
+        return new BookBatchResult(book, null);
+    }
+
+    public static BookBatchResult rejected(Book book, String error) {
+        return new BookBatchResult(book, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.emfsilva.api.library.model.batch;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BookImportReport {
+
+    private long processed;
+    private long created;
+    private long rejected;
+    private boolean errorsTruncated;
+    private List<String> errors = new ArrayList<>();
+}
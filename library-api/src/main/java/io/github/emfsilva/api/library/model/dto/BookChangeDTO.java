@@ -0,0 +1,21 @@
+package io.github.emfsilva.api.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChangeDTO {
+
+    private Long offset;
+    private String type;
+    private Long bookId;
+    private Long version;
+    private Instant changedAt;
+}
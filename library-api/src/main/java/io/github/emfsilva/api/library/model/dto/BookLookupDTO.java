@@ -0,0 +1,17 @@
+package io.github.emfsilva.api.library.model.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// resposta do POST /api/books/lookup: os livros encontrados na ordem dos ids pedidos
+// (repetidos aparecem uma vez) e os ids sem livro, também nessa ordem
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupDTO {
+
+    private List<BookDTO> books;
+    private List<Long> missing;
+}
@@ -9,18 +9,30 @@ import javax.annotation.sql.DataSourceDefinition;
 import javax.persistence.*;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "book")
+@Table(name = "book", uniqueConstraints = @UniqueConstraint(name = Book.UK_ISBN, columnNames = "isbn"))
 public class Book {
 
+    public static final String UK_ISBN = "uk_book_isbn";
+
+    // sequence com pooled optimizer: o IDENTITY impedia o batch de inserts do JDBC;
+    // o @Id do Spring Data é o que o R2DBC reconhece no perfil reactive
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
     private String author;
     private String isbn;
 
+    // controle de concorrência otimista: o update/delete só grava se a versão não mudou,
+    // e a versão é o ETag do livro na API
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,38 @@
+package io.github.emfsilva.api.library.model.entity;
+
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// registro compacto de uma alteração: o consumidor do log busca o estado atual do livro
+// pelo id; o id do registro é o offset, crescente na ordem em que foi reservado
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "book_change")
+public class BookChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_change_seq")
+    @SequenceGenerator(name = "book_change_seq", sequenceName = "book_change_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private BookChangedEvent.Type type;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    private Long version;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,86 @@
+package io.github.emfsilva.api.library.model.pagination;
+
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.model.entity.Book;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+@Getter
+public class BookCursor {
+
+    public static final String CURSOR_INVALIDO = "Cursor inválido";
+    public static final String ORDENACAO_INVALIDA = "Ordenação não suportada para cursor";
+
+    private static final Set<String> SORTABLE = Set.of("id", "title", "author");
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final String lastValue;
+
+    private BookCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // sort no formato "propriedade[,asc|desc]", o mesmo aceito pelo Pageable
+    public static BookCursor first(String sort) {
+        String[] parts = sort == null || sort.isBlank() ? new String[]{"id"} : sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property)) {
+            throw new BusinessException(ORDENACAO_INVALIDA);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(() -> new BusinessException(ORDENACAO_INVALIDA))
+                : Sort.Direction.ASC;
+        return new BookCursor(property, direction, null, null);
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length < 3 || !SORTABLE.contains(parts[0])) {
+                throw new BusinessException(CURSOR_INVALIDO);
+            }
+            String lastValue = parts.length == 4 ? parts[3] : null;
+            return new BookCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), lastValue);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(CURSOR_INVALIDO);
+        }
+    }
+
+    public BookCursor after(Book book) {
+        return new BookCursor(property, direction, book.getId(), sortValue(book));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public boolean isById() {
+        return "id".equals(property);
+    }
+
+    public String encode() {
+        String raw = property + "|" + direction.name() + "|" + lastId + (lastValue == null ? "" : "|" + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sortValue(Book book) {
+        switch (property) {
+            case "title":
+                return book.getTitle();
+            case "author":
+                return book.getAuthor();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.emfsilva.api.library.model.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// next é o after da próxima chamada: o offset do último registro, ou o próprio
+// after quando não veio nada
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePage<T> {
+
+    private List<T> changes;
+    private long next;
+}
@@ -0,0 +1,28 @@
+package io.github.emfsilva.api.library.model.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// página cujo total pode ser uma estimativa: o count não terminou a tempo e o total veio
+// da última contagem conhecida ou das estatísticas da tabela
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    // qualquer outra página traz o total do count(*)
+    public static boolean isTotalExact(Page<?> page) {
+        return !(page instanceof CountedPage) || ((CountedPage<?>) page).isTotalExact();
+    }
+}
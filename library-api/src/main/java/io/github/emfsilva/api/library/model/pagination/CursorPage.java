@@ -0,0 +1,35 @@
+package io.github.emfsilva.api.library.model.pagination;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = new ArrayList<>(content.size());
+        for (T item : content) {
+            converted.add(converter.apply(item));
+        }
+        return new CursorPage<>(converted, size, nextCursor, totalElements);
+    }
+}
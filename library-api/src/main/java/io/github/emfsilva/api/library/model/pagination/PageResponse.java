@@ -0,0 +1,75 @@
+package io.github.emfsilva.api.library.model.pagination;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// formato estável das páginas de GET /api/books: os campos de topo que o PageImpl já
+// expunha, sem o pageable e o sort internos do Spring Data, mais o totalExact (false
+// quando o totalElements é estimado, ver CountedPage)
+public class PageResponse<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final long totalElements;
+    private final boolean totalExact;
+
+    public PageResponse(List<T> content, int number, int size, long totalElements) {
+        this(content, number, size, totalElements, true);
+    }
+
+    public PageResponse(List<T> content, int number, int size, long totalElements, boolean totalExact) {
+        this.content = content;
+        this.number = number;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalExact = totalExact;
+    }
+
+    // número, tamanho e total vêm da página do serviço, com o conteúdo já convertido
+    public static <T> PageResponse<T> of(List<T> content, Page<?> page) {
+        return new PageResponse<>(content, page.getNumber(), page.getSize(), page.getTotalElements(),
+                CountedPage.isTotalExact(page));
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+    }
+
+    public boolean isFirst() {
+        return number == 0;
+    }
+
+    public boolean isLast() {
+        return number + 1 >= getTotalPages();
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
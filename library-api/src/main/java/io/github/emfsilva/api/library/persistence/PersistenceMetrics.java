@@ -0,0 +1,43 @@
+package io.github.emfsilva.api.library.persistence;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+// o que o Boot já publica: hikaricp.connections.* (acquire é a espera por conexão do pool)
+// e hibernate.* com as estatísticas ligadas. Aqui entra o cache de planos de consulta do
+// Hibernate, que evita recompilar jpql/criteria em cada chamada do BookRepository
+@Component
+@Profile("!reactive")
+public class PersistenceMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public PersistenceMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // com hibernate.generate_statistics=false os contadores ficariam sempre em zero
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        planCache(registry, "hit", Statistics::getQueryPlanCacheHitCount);
+        planCache(registry, "miss", Statistics::getQueryPlanCacheMissCount);
+    }
+
+    private void planCache(MeterRegistry registry, String result, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder("library.persistence.query.plan.cache", statistics, count)
+                .description("Consultas jpql/criteria com o plano já compilado no cache do Hibernate (hit) ou compiladas (miss)")
+                .tag("result", result)
+                .register(registry);
+    }
+}
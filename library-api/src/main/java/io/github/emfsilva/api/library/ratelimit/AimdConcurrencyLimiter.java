@@ -0,0 +1,71 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+// limite de requisições simultâneas ajustado por AIMD: cresce 1 a cada limite de
+// respostas rápidas com pelo menos metade dele em uso, e cai para backoff * limite quando
+// uma resposta passa da latência alvo ou termina em 5xx, no máximo uma vez por
+// intervalo da latência alvo, para uma rajada de respostas lentas não zerar o limite
+final class AimdConcurrencyLimiter {
+
+    private final int min;
+    private final int max;
+    private final long latencyThreshold;
+    private final double backoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // double guardado em bits para o compareAndSet
+    private final AtomicLong limit;
+    private final AtomicLong lastDecrease = new AtomicLong(Long.MIN_VALUE);
+
+    AimdConcurrencyLimiter(int initial, int min, int max, long latencyThresholdNanos, double backoff) {
+        this.min = min;
+        this.max = max;
+        this.latencyThreshold = latencyThresholdNanos;
+        this.backoff = backoff;
+        this.limit = new AtomicLong(Double.doubleToLongBits(Math.max(min, Math.min(initial, max))));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean failed, long now) {
+        int current = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyThreshold) {
+            long last = lastDecrease.get();
+            if ((last == Long.MIN_VALUE || now - last >= latencyThreshold) && lastDecrease.compareAndSet(last, now)) {
+                update(value -> Math.max(min, value * backoff));
+            }
+        } else if (current * 2 >= getLimit()) {
+            update(value -> Math.min(max, value + 1 / value));
+        }
+    }
+
+    int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        while (true) {
+            long bits = limit.get();
+            long next = Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == next || limit.compareAndSet(bits, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// um token bucket por cliente para um orçamento (by-id ou find), num cache limitado a
+// maxClients. Um balde sem uso pelo tempo de encher de novo expira sem mudar nada para o
+// cliente; acima do limite o Caffeine descarta os clientes menos frequentes, sem varrer
+// os baldes no caminho da requisição
+final class ClientRateLimiter {
+
+    private final double tokensPerSecond;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+
+    ClientRateLimiter(double tokensPerSecond, int burst, int maxClients) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos((long) (burst / tokensPerSecond * 1_000_000_000L)))
+                .build();
+    }
+
+    // o custo passa do burst só numa consulta que nunca caberia: é cobrado o balde inteiro
+    long tryAcquire(String client, int cost, long now) {
+        return buckets.get(client, key -> new TokenBucket(tokensPerSecond, burst, now))
+                .tryAcquire(Math.min(cost, burst), now);
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.exception.ApiErrors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+// admissão das requisições de /api/books antes de chegarem ao controller: primeiro o
+// token bucket do cliente (429), depois o limite adaptativo de concorrência (503).
+// O GET por id tem um orçamento próprio e mais folgado; o resto usa o do find, em que
+// uma página profunda custa mais tokens porque o banco percorre o offset inteiro
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.rate-limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMITE_EXCEDIDO = "Limite de requisições excedido, tente novamente em instantes";
+    static final String SOBRECARGA = "Servidor sobrecarregado, tente novamente em instantes";
+    static final String BY_ID = "by-id";
+    static final String FIND = "find";
+    private static final Pattern BY_ID_PATH = Pattern.compile("/api/books/\\d+");
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final int offsetCostStep;
+    private final ClientRateLimiter byId;
+    private final ClientRateLimiter find;
+    private final AimdConcurrencyLimiter concurrency;
+    private final Counter byIdAdmitted;
+    private final Counter byIdThrottled;
+    private final Counter findAdmitted;
+    private final Counter findThrottled;
+    private final Counter shed;
+
+    public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry registry,
+                           @Value("${library.rate-limit.client-header:X-Client-Id}") String clientHeader,
+                           @Value("${library.rate-limit.trusted-proxies:}") List<String> trustedProxies,
+                           @Value("${library.rate-limit.max-clients:100000}") int maxClients,
+                           @Value("${library.rate-limit.by-id.rate:200}") double byIdRate,
+                           @Value("${library.rate-limit.by-id.burst:400}") int byIdBurst,
+                           @Value("${library.rate-limit.find.rate:20}") double findRate,
+                           @Value("${library.rate-limit.find.burst:40}") int findBurst,
+                           @Value("${library.rate-limit.find.offset-cost-step:1000}") int offsetCostStep,
+                           @Value("${library.rate-limit.concurrency.initial:50}") int initialLimit,
+                           @Value("${library.rate-limit.concurrency.min:4}") int minLimit,
+                           @Value("${library.rate-limit.concurrency.max:400}") int maxLimit,
+                           @Value("${library.rate-limit.concurrency.latency-threshold:250ms}") Duration latencyThreshold,
+                           @Value("${library.rate-limit.concurrency.backoff:0.9}") double backoff) {
+        this.objectMapper = objectMapper;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.offsetCostStep = offsetCostStep;
+        this.byId = new ClientRateLimiter(byIdRate, byIdBurst, maxClients);
+        this.find = new ClientRateLimiter(findRate, findBurst, maxClients);
+        this.concurrency = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(),
+                backoff);
+        this.byIdAdmitted = counter(registry, BY_ID, "admitted");
+        this.byIdThrottled = counter(registry, BY_ID, "throttled");
+        this.findAdmitted = counter(registry, FIND, "admitted");
+        this.findThrottled = counter(registry, FIND, "throttled");
+        this.shed = Counter.builder("library.rate.limit.requests")
+                .description("Requisições de /api/books por orçamento e resultado da admissão")
+                .tag("budget", "concurrency")
+                .tag("outcome", "shed")
+                .register(registry);
+        Gauge.builder("library.rate.limit.concurrency.limit", concurrency, AimdConcurrencyLimiter::getLimit)
+                .register(registry);
+        Gauge.builder("library.rate.limit.concurrency.in.flight", concurrency, AimdConcurrencyLimiter::getInFlight)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.equals("/api/books") && !uri.startsWith("/api/books/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean isById = "GET".equals(request.getMethod()) && BY_ID_PATH.matcher(request.getRequestURI()).matches();
+        long now = System.nanoTime();
+        long wait = isById
+                ? byId.tryAcquire(client(request), 1, now)
+                : find.tryAcquire(client(request), cost(request), now);
+        if (wait > 0) {
+            (isById ? byIdThrottled : findThrottled).increment();
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, seconds, LIMITE_EXCEDIDO);
+            return;
+        }
+        if (!limitsConcurrency(request)) {
+            (isById ? byIdAdmitted : findAdmitted).increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrency.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, SOBRECARGA);
+            return;
+        }
+        (isById ? byIdAdmitted : findAdmitted).increment();
+        Release release = new Release(response, now);
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            release.run(true);
+            throw e;
+        }
+        // com virtual threads ou DeferredResult a resposta termina depois, no dispatch ASYNC
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(release);
+        } else {
+            release.run(false);
+        }
+    }
+
+    // o cliente é o endereço de origem. O header só vale quando a conexão vem de um proxy
+    // confiável, que o preenche: de qualquer outro, um valor novo por requisição daria um
+    // balde cheio a cada vez
+    private String client(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.contains(address)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return address;
+    }
+
+    // 1 token por página rasa, mais 1 a cada offset-cost-step linhas puladas
+    private int cost(HttpServletRequest request) {
+        int page = intParameter(request, "page", 0);
+        int size = intParameter(request, "size", DEFAULT_PAGE_SIZE);
+        long offset = (long) Math.max(0, page) * Math.max(1, size);
+        return (int) Math.min(Integer.MAX_VALUE, 1 + offset / offsetCostStep);
+    }
+
+    // o long-poll e os streams de import/export ficam abertos por natureza: a latência
+    // deles não diz nada sobre a saúde do banco
+    private static boolean limitsConcurrency(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/books/changes") && !uri.startsWith("/api/books/export")
+                && !uri.startsWith("/api/books/import");
+    }
+
+    private static int intParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfter, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrors(message));
+    }
+
+    private static Counter counter(MeterRegistry registry, String budget, String outcome) {
+        return Counter.builder("library.rate.limit.requests")
+                .description("Requisições de /api/books por orçamento e resultado da admissão")
+                .tag("budget", budget)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // devolve a vaga uma única vez, no fim síncrono ou no primeiro evento do AsyncContext
+    private final class Release implements AsyncListener {
+
+        private final HttpServletResponse response;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(HttpServletResponse response, long start) {
+            this.response = response;
+            this.start = start;
+        }
+
+        void run(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                long now = System.nanoTime();
+                concurrency.release(now - start, failed || response.getStatus() >= 500, now);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
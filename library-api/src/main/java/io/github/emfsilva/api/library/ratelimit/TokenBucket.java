@@ -0,0 +1,35 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// token bucket sem lock no formato GCRA: em vez de tokens e última recarga guarda só o
+// instante teórico em que o balde estaria cheio de novo, e um compareAndSet resolve
+// a disputa entre requisições do mesmo cliente
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong full;
+
+    TokenBucket(double tokensPerSecond, int burst, long now) {
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * burst;
+        this.full = new AtomicLong(now);
+    }
+
+    // 0 quando os tokens foram consumidos; senão, nanos até haver tokens suficientes
+    long tryAcquire(int cost, long now) {
+        long needed = nanosPerToken * cost;
+        while (true) {
+            long current = full.get();
+            long next = Math.max(current, now) + needed;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (full.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
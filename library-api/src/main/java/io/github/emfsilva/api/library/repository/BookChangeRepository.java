@@ -0,0 +1,23 @@
+package io.github.emfsilva.api.library.repository;
+
+import io.github.emfsilva.api.library.model.entity.BookChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+@Repository
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    @Query("select c from BookChange c where c.id > :after and c.id <= :until order by c.id")
+    List<BookChange> findRange(@Param("after") long after, @Param("until") long until, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from BookChange c")
+    long findLastId();
+}
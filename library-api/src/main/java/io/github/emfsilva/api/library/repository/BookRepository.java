@@ -2,10 +2,31 @@ package io.github.emfsilva.api.library.repository;
 
 import io.github.emfsilva.api.library.model.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+
+    // redeclarado só pelo hint: a hidratação do BookSearchIndex traz os livros
+    // read-only mesmo dentro de uma transação de escrita de quem chama
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<Book> findAllById(Iterable<Long> ids);
+
     boolean existsByIsbn(String isbn);
+
+    @Query("select b.isbn from Book b")
+    Stream<String> streamAllIsbns();
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
 }
 
@@ -0,0 +1,25 @@
+package io.github.emfsilva.api.library.repository;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface BookRepositoryCustom {
+
+    List<Book> findAfter(Book filter, BookCursor cursor, int limit);
+
+    Stream<Book> streamMatching(Book filter, int fetchSize);
+
+    Page<Book> findMatching(Book filter, Pageable pageable);
+
+    List<Book> findMatchingContent(Book filter, Pageable pageable);
+
+    long countMatching(Book filter);
+
+    Page<Book> findFields(Book filter, Set<String> fields, Pageable pageable);
+}
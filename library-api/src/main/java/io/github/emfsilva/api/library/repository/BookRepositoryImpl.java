@@ -0,0 +1,240 @@
+package io.github.emfsilva.api.library.repository;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+    private final EntityManager entityManager;
+
+    public BookRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // keyset: filtra pela última chave vista em vez de usar OFFSET, assim a
+    // consulta custa o mesmo em qualquer profundidade e não precisa de count.
+    // title/author podem ser nulos (o PUT copia o DTO sem validar), e nenhuma comparação
+    // alcança um nulo: os nulos formam um bloco à parte, antes dos demais na ordem
+    // crescente e depois na decrescente, ordenado pelo id. Cada consulta lê um bloco só,
+    // então a posição dos nulos no ORDER BY do banco não importa e o índice (chave, id)
+    // continua servindo
+    @Override
+    public List<Book> findAfter(Book filter, BookCursor cursor, int limit) {
+        if (cursor.isById()) {
+            return findAfter(filter, cursor, limit, null, !cursor.isFirst());
+        }
+        boolean cursorInNulls = !cursor.isFirst() && cursor.getLastValue() == null;
+        boolean[] blocks = cursor.getDirection().isAscending() ? new boolean[]{true, false} : new boolean[]{false, true};
+        List<Book> books = new ArrayList<>(limit);
+        boolean started = cursor.isFirst();
+        for (boolean nulls : blocks) {
+            boolean current = !cursor.isFirst() && cursorInNulls == nulls;
+            // bloco que o cursor já deixou para trás
+            if (!started && !current) {
+                continue;
+            }
+            books.addAll(findAfter(filter, cursor, limit - books.size(), nulls, current));
+            started = true;
+            if (books.size() >= limit) {
+                break;
+            }
+        }
+        return books;
+    }
+
+    // nullKeys: null na ordenação por id; senão só as linhas com (true) ou sem (false) chave
+    // nula. fromCursor: o cursor está neste bloco e a leitura começa depois dele
+    private List<Book> findAfter(Book filter, BookCursor cursor, int limit, Boolean nullKeys, boolean fromCursor) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        List<Predicate> predicates = containing(cb, root, filter);
+        boolean asc = cursor.getDirection().isAscending();
+        Path<Long> id = root.get("id");
+        boolean byKey = Boolean.FALSE.equals(nullKeys);
+        Path<String> key = nullKeys == null ? null : root.get(cursor.getProperty());
+        if (nullKeys != null) {
+            predicates.add(nullKeys ? cb.isNull(key) : cb.isNotNull(key));
+        }
+
+        if (fromCursor) {
+            Predicate afterId = asc ? cb.greaterThan(id, cursor.getLastId()) : cb.lessThan(id, cursor.getLastId());
+            if (byKey) {
+                Predicate afterKey = asc ? cb.greaterThan(key, cursor.getLastValue()) : cb.lessThan(key, cursor.getLastValue());
+                predicates.add(cb.or(afterKey, cb.and(cb.equal(key, cursor.getLastValue()), afterId)));
+            } else {
+                predicates.add(afterId);
+            }
+        }
+
+        query.select(root).where(predicates.toArray(new Predicate[0]));
+        if (byKey) {
+            query.orderBy(asc ? cb.asc(key) : cb.desc(key), asc ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(asc ? cb.asc(id) : cb.desc(id));
+        }
+
+        // read-only mesmo fora de transação (reconstrução do BookSearchIndex)
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // cursor forward-only do JDBC; cada livro é desanexado ao sair do stream para
+    // que o persistence context não cresça com o tamanho do catálogo
+    @Override
+    public Stream<Book> streamMatching(Book filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root)
+                .where(containing(cb, root, filter).toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .map(book -> {
+                    entityManager.detach(book);
+                    return book;
+                });
+    }
+
+    @Override
+    public Page<Book> findMatching(Book filter, Pageable pageable) {
+        return PageableExecutionUtils.getPage(findMatchingContent(filter, pageable), pageable,
+                () -> countMatching(filter));
+    }
+
+    // StatelessSession na conexão da transação atual: os livros saem sem EntityEntry,
+    // snapshot ou proxy no persistence context, e não entram no flush do commit
+    @Override
+    public List<Book> findMatchingContent(Book filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root)
+                .where(containing(cb, root, filter).toArray(new Predicate[0]))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        Session session = entityManager.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection)) {
+                org.hibernate.query.Query<Book> statelessQuery = stateless.createQuery(query);
+                if (pageable.isPaged()) {
+                    statelessQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+                }
+                return statelessQuery.getResultList();
+            }
+        });
+    }
+
+    // projeção por Tuple: o select traz só as colunas pedidas (mais id e version, para
+    // o ETag), sem entidades gerenciadas; os livros devolvidos são parciais e avulsos
+    @Override
+    public Page<Book> findFields(Book filter, Set<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 2);
+        selections.add(root.get("id").alias("id"));
+        selections.add(root.get("version").alias("version"));
+        for (String field : fields) {
+            if (!field.equals("id")) {
+                selections.add(root.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections)
+                .where(containing(cb, root, filter).toArray(new Predicate[0]))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> rows = typedQuery.getResultList();
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            books.add(toBook(row, fields));
+        }
+        return PageableExecutionUtils.getPage(books, pageable, () -> countMatching(filter));
+    }
+
+    @Override
+    public long countMatching(Book filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(cb.count(root)).where(containing(cb, root, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Book toBook(Tuple row, Set<String> fields) {
+        Book book = Book.builder()
+                .id(row.get("id", Long.class))
+                .version(row.get("version", Long.class))
+                .build();
+        if (fields.contains("title")) {
+            book.setTitle(row.get("title", String.class));
+        }
+        if (fields.contains("author")) {
+            book.setAuthor(row.get("author", String.class));
+        }
+        if (fields.contains("isbn")) {
+            book.setIsbn(row.get("isbn", String.class));
+        }
+        return book;
+    }
+
+    // mesma semântica do ExampleMatcher que o find usava: id igual, textos contendo o
+    // valor sem diferenciar caixa, campos nulos ignorados
+    static List<Predicate> containing(CriteriaBuilder cb, Root<Book> root, Book filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.getId() != null) {
+            predicates.add(cb.equal(root.get("id"), filter.getId()));
+        }
+        addContaining(cb, root, predicates, "title", filter.getTitle());
+        addContaining(cb, root, predicates, "author", filter.getAuthor());
+        addContaining(cb, root, predicates, "isbn", filter.getIsbn());
+        return predicates;
+    }
+
+    private static void addContaining(CriteriaBuilder cb, Root<Book> root, List<Predicate> predicates,
+                                      String property, String value) {
+        if (value != null) {
+            String pattern = "%" + ESCAPE.escape(value.toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(root.get(property)), pattern, ESCAPE.getEscapeCharacter()));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.emfsilva.api.library.repository;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+// classe e não interface do Spring Data: com JPA e R2DBC no classpath, a varredura
+// de repositórios do JPA tentaria instanciar uma interface reativa e falharia
+@Repository
+@Profile("reactive")
+public class ReactiveBookRepository {
+
+    private static final Set<String> SORTABLE = Set.of("id", "title", "author", "isbn");
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcEntityTemplate template;
+    private final Scheduler scheduler;
+
+    public ReactiveBookRepository(DatabaseClient databaseClient, Scheduler databaseScheduler) {
+        this.databaseClient = databaseClient;
+        this.template = new R2dbcEntityTemplate(databaseClient);
+        this.scheduler = databaseScheduler;
+    }
+
+    public Mono<Book> findById(Long id) {
+        return template.selectOne(query(where("id").is(id)), Book.class).subscribeOn(scheduler);
+    }
+
+    public Mono<Boolean> existsByIsbn(String isbn) {
+        return template.exists(query(where("isbn").is(isbn)), Book.class).subscribeOn(scheduler);
+    }
+
+    public Mono<Book> insert(Book book) {
+        if (book.getVersion() == null) {
+            book.setVersion(0L);
+        }
+        return template.insert(book).subscribeOn(scheduler);
+    }
+
+    // o R2DBC só reconhece o @Version do Spring Data, que o Spring Data JPA recusa no
+    // lugar do javax.persistence.Version; a verificação da versão fica aqui no where
+    public Mono<Book> update(Book book) {
+        long version = book.getVersion();
+        return template.update(Book.class)
+                .matching(query(where("id").is(book.getId()).and("version").is(version)))
+                .apply(Update.update("title", book.getTitle())
+                        .set("author", book.getAuthor())
+                        .set("isbn", book.getIsbn())
+                        .set("version", version + 1))
+                .flatMap(rows -> {
+                    if (rows == 0) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Livro " + book.getId() + " alterado ou removido desde a versão " + version));
+                    }
+                    book.setVersion(version + 1);
+                    return Mono.just(book);
+                })
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<Void> delete(Book book) {
+        return template.delete(book).then().subscribeOn(scheduler);
+    }
+
+    // mesma semântica do filtro do BookRepositoryImpl (id igual, textos contendo o valor
+    // sem diferenciar caixa, campos nulos ignorados); o R2DBC desta versão não tem query
+    // by example nem like sem caixa
+    public Flux<Book> findMatching(Book filter, Pageable pageable) {
+        Map<String, Object> binds = binds(filter);
+        StringBuilder sql = new StringBuilder("select id, title, author, isbn, version from book").append(whereClause(binds));
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : pageable.getSort()) {
+            if (SORTABLE.contains(order.getProperty())) {
+                orderBy.append(orderBy.length() == 0 ? " order by " : ", ")
+                        .append(order.getProperty()).append(order.isAscending() ? " asc" : " desc");
+            }
+        }
+        sql.append(orderBy);
+        if (pageable.isPaged()) {
+            sql.append(" limit ").append(pageable.getPageSize()).append(" offset ").append(pageable.getOffset());
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute(sql.toString());
+        for (Map.Entry<String, Object> bind : binds.entrySet()) {
+            spec = spec.bind(bind.getKey(), bind.getValue());
+        }
+        return spec.as(Book.class).fetch().all().subscribeOn(scheduler);
+    }
+
+    public Mono<Long> countMatching(Book filter) {
+        Map<String, Object> binds = binds(filter);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute("select count(*) from book" + whereClause(binds));
+        for (Map.Entry<String, Object> bind : binds.entrySet()) {
+            spec = spec.bind(bind.getKey(), bind.getValue());
+        }
+        return spec.map((row, metadata) -> row.get(0, Long.class)).one().subscribeOn(scheduler);
+    }
+
+    private static Map<String, Object> binds(Book filter) {
+        Map<String, Object> binds = new LinkedHashMap<>();
+        if (filter != null) {
+            if (filter.getId() != null) {
+                binds.put("id", filter.getId());
+            }
+            putContaining(binds, "title", filter.getTitle());
+            putContaining(binds, "author", filter.getAuthor());
+            putContaining(binds, "isbn", filter.getIsbn());
+        }
+        return binds;
+    }
+
+    private static void putContaining(Map<String, Object> binds, String column, String value) {
+        if (value != null) {
+            binds.put(column, "%" + EscapeCharacter.DEFAULT.escape(value.toLowerCase(Locale.ROOT)) + "%");
+        }
+    }
+
+    private static String whereClause(Map<String, Object> binds) {
+        StringBuilder where = new StringBuilder();
+        for (String column : binds.keySet()) {
+            where.append(where.length() == 0 ? " where " : " and ");
+            if (column.equals("id")) {
+                where.append("id = :id");
+            } else {
+                where.append("lower(").append(column).append(") like :").append(column).append(" escape '\\'");
+            }
+        }
+        return where.toString();
+    }
+}
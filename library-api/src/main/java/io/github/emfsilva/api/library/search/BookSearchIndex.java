@@ -0,0 +1,249 @@
+package io.github.emfsilva.api.library.search;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// índice invertido de trigramas sobre title, author e isbn; substitui o
+// lower(x) like '%y%' do ExampleMatcher, que sempre varre a tabela inteira
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.search.index.enabled", havingValue = "true")
+public class BookSearchIndex {
+
+    static final int GRAM = 3;
+    static final int TITLE = 0;
+    static final int AUTHOR = 1;
+    static final int ISBN = 2;
+    private static final char[] FIELD_KEYS = {'t', 'a', 'i'};
+    private static final int REBUILD_CHUNK = 1_000;
+
+    private final BookRepository repository;
+    private final ConcurrentHashMap<Long, String[]> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PostingList> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // ids removidos enquanto a reconstrução percorre a tabela: o bloco lido antes do
+    // DELETE não pode devolver o livro ao índice
+    private volatile Set<Long> removedDuringRebuild;
+
+    public BookSearchIndex(BookRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        removedDuringRebuild = ConcurrentHashMap.newKeySet();
+        long start = System.currentTimeMillis();
+        BookCursor cursor = BookCursor.first("id");
+        List<Book> chunk = repository.findAfter(null, cursor, REBUILD_CHUNK);
+        while (!chunk.isEmpty()) {
+            chunk.forEach(book -> index(book, false));
+            cursor = cursor.after(chunk.get(chunk.size() - 1));
+            chunk = repository.findAfter(null, cursor, REBUILD_CHUNK);
+        }
+        removedDuringRebuild = null;
+        ready = true;
+        log.info("Indice de busca carregado com {} livros em {} ms", documents.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            remove(event.getBook().getId());
+        } else {
+            index(event.getBook(), true);
+        }
+    }
+
+    // de outra instância só chega o id: o documento é relido do banco
+    @EventListener
+    public void onBookInvalidated(BookInvalidatedEvent event) {
+        Optional<Book> book = repository.findById(event.getId());
+        if (book.isPresent()) {
+            index(book.get(), true);
+        } else {
+            remove(event.getId());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // só atende consultas ordenadas por id (ou sem ordenação) com ao menos um termo
+    // indexável; filtro por id fica com o banco, o índice não o considera
+    public boolean supports(Book filter, Pageable pageable) {
+        if (!ready || filter == null || filter.getId() != null || !sortedById(pageable.getSort())) {
+            return false;
+        }
+        String[] terms = terms(filter);
+        for (String term : terms) {
+            if (term != null && term.length() >= GRAM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Page<Long> search(Book filter, Pageable pageable) {
+        String[] terms = terms(filter);
+        PostingList candidates = smallestPosting(terms);
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        if (candidates == null) {
+            return new PageImpl<>(ids, pageable, 0);
+        }
+
+        boolean descending = pageable.getSort().isSorted() && pageable.getSort().iterator().next().isDescending();
+        long offset = pageable.getOffset();
+        long total = 0;
+        PostingList.Snapshot snapshot = candidates.snapshot();
+        for (int i = 0; i < snapshot.size; i++) {
+            long id = snapshot.ids[descending ? snapshot.size - 1 - i : i];
+            if (matches(documents.get(id), terms)) {
+                if (total >= offset && ids.size() < pageable.getPageSize()) {
+                    ids.add(id);
+                }
+                total++;
+            }
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private void index(Book book, boolean replace) {
+        if (book.getId() == null) {
+            return;
+        }
+        long id = book.getId();
+        String[] document = {normalize(book.getTitle()), normalize(book.getAuthor()), normalize(book.getIsbn())};
+        documents.compute(id, (key, previous) -> {
+            if (previous != null && !replace) {
+                return previous;
+            }
+            // conferido dentro do compute: o remove registra o id antes de disputar a mesma chave
+            Set<Long> removed = removedDuringRebuild;
+            if (!replace && removed != null && removed.contains(id)) {
+                return previous;
+            }
+            if (previous != null) {
+                grams(previous).forEach(gram -> removePosting(gram, id));
+            }
+            grams(document).forEach(gram -> postings.computeIfAbsent(gram, g -> new PostingList()).add(id));
+            return document;
+        });
+    }
+
+    private void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        Set<Long> removed = removedDuringRebuild;
+        if (removed != null) {
+            removed.add(id);
+        }
+        documents.computeIfPresent(id, (key, previous) -> {
+            grams(previous).forEach(gram -> removePosting(gram, id));
+            return null;
+        });
+    }
+
+    private void removePosting(String gram, long id) {
+        PostingList posting = postings.get(gram);
+        if (posting != null) {
+            posting.remove(id);
+        }
+    }
+
+    private PostingList smallestPosting(String[] terms) {
+        PostingList smallest = null;
+        for (int field = 0; field < terms.length; field++) {
+            String term = terms[field];
+            if (term == null || term.length() < GRAM) {
+                continue;
+            }
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                PostingList posting = postings.get(key(field, term, i));
+                if (posting == null) {
+                    return null;
+                }
+                if (smallest == null || posting.size() < smallest.size()) {
+                    smallest = posting;
+                }
+            }
+        }
+        return smallest;
+    }
+
+    private static boolean matches(String[] document, String[] terms) {
+        if (document == null) {
+            return false;
+        }
+        for (int field = 0; field < terms.length; field++) {
+            String term = terms[field];
+            if (term != null && (document[field] == null || !document[field].contains(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> grams(String[] document) {
+        Set<String> grams = new HashSet<>();
+        for (int field = 0; field < document.length; field++) {
+            String value = document[field];
+            if (value == null) {
+                continue;
+            }
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(key(field, value, i));
+            }
+        }
+        return grams;
+    }
+
+    private static String key(int field, String value, int start) {
+        return FIELD_KEYS[field] + value.substring(start, start + GRAM);
+    }
+
+    private static String[] terms(Book filter) {
+        return new String[]{normalize(filter.getTitle()), normalize(filter.getAuthor()), normalize(filter.getIsbn())};
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean sortedById(Sort sort) {
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && "id".equals(orders.get(0).getProperty());
+    }
+}
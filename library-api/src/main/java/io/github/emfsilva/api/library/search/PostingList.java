@@ -0,0 +1,64 @@
+package io.github.emfsilva.api.library.search;
+
+import java.util.Arrays;
+
+// ids ordenados; leitores usam o snapshot sem lock, escritores são serializados
+final class PostingList {
+
+    static final class Snapshot {
+        final long[] ids;
+        final int size;
+
+        Snapshot(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(new long[4], 0);
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    int size() {
+        return snapshot.size;
+    }
+
+    synchronized void add(long id) {
+        Snapshot current = snapshot;
+        long[] ids = current.ids;
+        int size = current.size;
+        if (size == 0 || id > ids[size - 1]) {
+            // append: escreve além do tamanho publicado, invisível a quem lê o snapshot atual
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            snapshot = new Snapshot(ids, size + 1);
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        long[] copy = new long[size == ids.length ? size * 2 : ids.length];
+        System.arraycopy(ids, 0, copy, 0, pos);
+        copy[pos] = id;
+        System.arraycopy(ids, pos, copy, pos + 1, size - pos);
+        snapshot = new Snapshot(copy, size + 1);
+    }
+
+    synchronized void remove(long id) {
+        Snapshot current = snapshot;
+        int pos = Arrays.binarySearch(current.ids, 0, current.size, id);
+        if (pos < 0) {
+            return;
+        }
+        long[] copy = new long[current.ids.length];
+        System.arraycopy(current.ids, 0, copy, 0, pos);
+        System.arraycopy(current.ids, pos + 1, copy, pos, current.size - pos - 1);
+        snapshot = new Snapshot(copy, current.size - 1);
+    }
+}
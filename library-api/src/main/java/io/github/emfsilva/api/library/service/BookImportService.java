@@ -0,0 +1,13 @@
+package io.github.emfsilva.api.library.service;
+
+import io.github.emfsilva.api.library.model.batch.BookImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    BookImportReport importNdjson(InputStream input) throws IOException;
+
+    BookImportReport importCsv(InputStream input) throws IOException;
+}
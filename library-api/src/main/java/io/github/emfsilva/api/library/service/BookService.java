@@ -1,19 +1,37 @@
 package io.github.emfsilva.api.library.service;
 
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BookService {
     Book save(Book book);
 
+    List<BookBatchResult> saveAll(List<Book> books);
+
     Optional<Book> getById(Long id);
 
+    Map<Long, Book> getByIds(Collection<Long> ids);
+
     void delete(Book book);
 
     Book update(Book book);
 
     Page<Book> find(Book filter, Pageable pageRequest);
+
+    Page<Book> find(Book filter, Set<String> fields, Pageable pageRequest);
+
+    void export(Book filter, Consumer<Book> consumer);
+
+    CursorPage<Book> scroll(Book filter, BookCursor cursor, int size, boolean count);
 }
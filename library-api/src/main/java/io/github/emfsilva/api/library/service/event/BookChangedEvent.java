@@ -0,0 +1,19 @@
+package io.github.emfsilva.api.library.service.event;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Book book;
+}
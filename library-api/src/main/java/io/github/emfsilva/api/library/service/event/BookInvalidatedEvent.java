@@ -0,0 +1,15 @@
+package io.github.emfsilva.api.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// o livro foi alterado em outra instância (BookInvalidationBus): só o id chega, e quem
+// guarda algo do livro descarta ou recarrega do banco
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookInvalidatedEvent {
+
+    private final Long id;
+}
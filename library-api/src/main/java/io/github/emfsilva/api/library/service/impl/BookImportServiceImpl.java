@@ -0,0 +1,215 @@
+package io.github.emfsilva.api.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
+import io.github.emfsilva.api.library.model.batch.BookImportReport;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookImportService;
+import io.github.emfsilva.api.library.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// lê o arquivo registro a registro e grava em lotes pelo BookService.saveAll;
+// a leitura só avança depois que o lote anterior foi gravado, então a memória
+// usada depende do tamanho do lote e não do tamanho do arquivo
+@Slf4j
+@Service
+@Profile("!reactive")
+public class BookImportServiceImpl implements BookImportService {
+
+    static final int MAX_ERRORS = 100;
+    static final String REGISTRO_NULO = "registro nulo";
+    static final String REGISTRO_NAO_OBJETO = "registro não é um objeto JSON";
+    // maior que o buffer do parser do Jackson, que devolve o que leu além do erro
+    private static final int PUSHBACK_SIZE = 64 * 1024;
+
+    private final BookService bookService;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    public BookImportServiceImpl(BookService bookService, BookMapper bookMapper, Validator validator,
+                                 ObjectMapper objectMapper,
+                                 @Value("${library.import.batch-size:1000}") int batchSize) {
+        this.bookService = bookService;
+        this.bookMapper = bookMapper;
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(BookDTO.class);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        csvMapper.enable(CsvParser.Feature.SKIP_EMPTY_LINES);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        this.csvReader = csvMapper.readerFor(BookDTO.class).with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    // registros lidos direto do stream pelo parser do Jackson, sem montar a linha inteira;
+    // um erro de sintaxe deixa o parser sem saída, então o que ele já tinha lido volta para
+    // o stream, o resto da linha quebrada é descartado e um parser novo segue da próxima
+    @Override
+    public BookImportReport importNdjson(InputStream input) throws IOException {
+        Import job = new Import();
+        PushbackInputStream source = new PushbackInputStream(new BufferedInputStream(input), PUSHBACK_SIZE);
+        // linhas consumidas pelos parsers anteriores
+        long skipped = 0;
+        while (true) {
+            JsonParser parser = jsonReader.getFactory().createParser(source);
+            // o stream segue para o próximo parser depois de uma linha quebrada
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            long lineNumber = skipped + 1;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    lineNumber = skipped + parser.getTokenLocation().getLineNr();
+                    if (token == JsonToken.START_OBJECT) {
+                        job.accept(lineNumber, jsonReader.readValue(parser));
+                    } else {
+                        parser.skipChildren();
+                        job.reject(lineNumber, token == JsonToken.VALUE_NULL ? REGISTRO_NULO : REGISTRO_NAO_OBJETO);
+                    }
+                }
+                return job.finish();
+            } catch (JsonProcessingException e) {
+                if (e.getLocation() != null) {
+                    lineNumber = skipped + e.getLocation().getLineNr();
+                }
+                job.reject(lineNumber, e.getOriginalMessage());
+                ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+                parser.releaseBuffered(buffered);
+                source.unread(buffered.toByteArray());
+                if (!skipLine(source)) {
+                    return job.finish();
+                }
+                skipped = lineNumber;
+            }
+        }
+    }
+
+    private static boolean skipLine(InputStream input) throws IOException {
+        int next;
+        while ((next = input.read()) != -1) {
+            if (next == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public BookImportReport importCsv(InputStream input) throws IOException {
+        Import job = new Import();
+        try (MappingIterator<BookDTO> records = csvReader.readValues(input)) {
+            while (true) {
+                long lineNumber = records.getCurrentLocation().getLineNr();
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    BookDTO dto = records.nextValue();
+                    job.accept(records.getCurrentLocation().getLineNr(), dto);
+                } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+                    job.reject(lineNumber, e.getMessage());
+                    if (records.getCurrentLocation().getLineNr() == lineNumber) {
+                        // o parser não conseguiu avançar; continuar entraria em loop
+                        break;
+                    }
+                }
+            }
+        }
+        return job.finish();
+    }
+
+    private class Import {
+
+        private final BookImportReport report = new BookImportReport();
+        private final List<Book> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+
+        void accept(long lineNumber, BookDTO dto) {
+            report.setProcessed(report.getProcessed() + 1);
+            Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                List<String> errors = new ArrayList<>(violations.size());
+                violations.forEach(violation -> errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+                rejected(lineNumber, String.join(", ", errors));
+                return;
+            }
+            batch.add(bookMapper.toEntity(dto));
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long lineNumber, String error) {
+            report.setProcessed(report.getProcessed() + 1);
+            rejected(lineNumber, error);
+        }
+
+        BookImportReport finish() {
+            flush();
+            log.info("Importação concluída: {} processados, {} criados, {} rejeitados",
+                    report.getProcessed(), report.getCreated(), report.getRejected());
+            return report;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                List<BookBatchResult> results = bookService.saveAll(batch);
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).isCreated()) {
+                        report.setCreated(report.getCreated() + 1);
+                    } else {
+                        rejected(batchLines.get(i), results.get(i).getError());
+                    }
+                }
+            } catch (BusinessException e) {
+                batchLines.forEach(lineNumber -> rejected(lineNumber, e.getMessage()));
+            }
+            batch.clear();
+            batchLines.clear();
+            log.info("Importação em andamento: {} processados, {} criados, {} rejeitados",
+                    report.getProcessed(), report.getCreated(), report.getRejected());
+        }
+
+        private void rejected(long lineNumber, String error) {
+            report.setRejected(report.getRejected() + 1);
+            if (report.getErrors().size() < MAX_ERRORS) {
+                report.getErrors().add("linha " + lineNumber + ": " + error);
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+}
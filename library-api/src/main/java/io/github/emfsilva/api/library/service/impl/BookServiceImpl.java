@@ -1,68 +1,412 @@
 package io.github.emfsilva.api.library.service.impl;
 
+import io.github.emfsilva.api.library.cache.BookCache;
+import io.github.emfsilva.api.library.coalescing.BookRequestCoalescer;
+import io.github.emfsilva.api.library.count.BookCounter;
 import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.isbn.IsbnRegistry;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
 import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.search.BookSearchIndex;
 import io.github.emfsilva.api.library.service.BookService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 public class BookServiceImpl implements BookService {
 
     String ISBN_CADASTRADO = "Isbn já cadastrado";
+    static final String LIVRO_RECUSADO = "Livro recusado pelo banco: %s";
+    static final int IN_CHUNK = 1_000;
+    static final String TIMER = "library.book.service";
     private final BookRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final Optional<BookSearchIndex> searchIndex;
+    private final IsbnRegistry isbnRegistry;
+    private final BookCache bookCache;
+    private final BookMetrics metrics;
+    private final int exportFetchSize;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate transaction;
+    private final Optional<BookRequestCoalescer> coalescer;
+    private final Optional<BookCounter> counter;
+    private final int lookupChunkSize;
+    private final ThreadPoolExecutor lookupExecutor;
 
-    public BookServiceImpl(BookRepository repository) {
+    public BookServiceImpl(BookRepository repository, ApplicationEventPublisher publisher,
+                           Optional<BookSearchIndex> searchIndex, IsbnRegistry isbnRegistry, BookCache bookCache,
+                           BookMetrics metrics, @Value("${library.export.fetch-size:1000}") int exportFetchSize,
+                           PlatformTransactionManager transactionManager, Optional<BookRequestCoalescer> coalescer,
+                           Optional<BookCounter> counter,
+                           @Value("${library.lookup.chunk-size:500}") int lookupChunkSize,
+                           @Value("${library.lookup.threads:4}") int lookupThreads) {
         this.repository = repository;
+        this.publisher = publisher;
+        this.searchIndex = searchIndex;
+        this.isbnRegistry = isbnRegistry;
+        this.bookCache = bookCache;
+        this.metrics = metrics;
+        this.exportFetchSize = exportFetchSize;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.coalescer = coalescer;
+        this.counter = counter;
+        this.lookupChunkSize = lookupChunkSize;
+        AtomicInteger sequence = new AtomicInteger();
+        // sem fila: com as threads ocupadas o bloco roda na thread de quem pediu, então o
+        // lookup nunca espera atrás de outro e as conexões em uso ficam limitadas
+        this.lookupExecutor = new ThreadPoolExecutor(0, lookupThreads, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "book-lookup-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdown();
     }
 
+    // transacional com flush: a violação do isbn aparece aqui dentro, e o que escuta o
+    // BookChangedEvent de forma síncrona (BookChangeLog) grava na mesma transação
     @Override
+    @Transactional
+    @Timed(TIMER)
     public Book save(Book book) {
-        existByIsbn(book);
-        return repository.save(book);
+        String isbn = book.getIsbn();
+        if (!isbnRegistry.reserve(isbn)) {
+            throw new BusinessException(ISBN_CADASTRADO);
+        }
+        try {
+            existByIsbn(book);
+            Book saved = repository.save(book);
+            repository.flush();
+            isbnRegistry.register(isbn);
+            publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e)) {
+                isbnRegistry.register(isbn);
+                throw new BusinessException(ISBN_CADASTRADO);
+            }
+            throw e;
+        } finally {
+            isbnRegistry.release(isbn);
+        }
+    }
+
+    // um único round trip por bloco de isbns e inserts agrupados pelo hibernate.jdbc.batch_size.
+    // Os livros gravados são cópias: os do chamador ficam sem id. Se o banco recusar o lote
+    // (isbn gravado por outro caminho depois da conferência), cada livro é gravado na sua
+    // própria transação e o recusado sai com o seu resultado, sem levar os outros junto
+    @Override
+    @Timed(TIMER)
+    public List<BookBatchResult> saveAll(List<Book> books) {
+        BookBatchResult[] results = new BookBatchResult[books.size()];
+        Set<String> reserved = new HashSet<>();
+        try {
+            List<String> toCheck = new ArrayList<>();
+            for (int i = 0; i < books.size(); i++) {
+                String isbn = books.get(i).getIsbn();
+                if (!isbnRegistry.reserve(isbn)) {
+                    results[i] = BookBatchResult.rejected(books.get(i), ISBN_CADASTRADO);
+                } else {
+                    reserved.add(isbn);
+                    if (isbnRegistry.mightExist(isbn)) {
+                        toCheck.add(isbn);
+                    }
+                }
+            }
+            Set<String> existing = existingIsbns(toCheck);
+
+            List<Integer> toSave = new ArrayList<>(books.size());
+            for (int i = 0; i < books.size(); i++) {
+                if (results[i] == null && existing.contains(books.get(i).getIsbn())) {
+                    results[i] = BookBatchResult.rejected(books.get(i), ISBN_CADASTRADO);
+                } else if (results[i] == null) {
+                    toSave.add(i);
+                }
+            }
+
+            try {
+                List<Book> saved = transaction.execute(status -> saveBatch(books, toSave));
+                for (int i = 0; i < toSave.size(); i++) {
+                    results[toSave.get(i)] = BookBatchResult.created(saved.get(i));
+                }
+            } catch (DataIntegrityViolationException e) {
+                for (int i : toSave) {
+                    results[i] = saveOne(books.get(i));
+                }
+            }
+            return List.of(results);
+        } finally {
+            reserved.forEach(isbnRegistry::release);
+        }
+    }
+
+    private List<Book> saveBatch(List<Book> books, List<Integer> toSave) {
+        List<Book> copies = new ArrayList<>(toSave.size());
+        for (int i : toSave) {
+            copies.add(newBook(books.get(i)));
+        }
+        List<Book> saved = repository.saveAll(copies);
+        repository.flush();
+        for (Book book : saved) {
+            isbnRegistry.register(book.getIsbn());
+            publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, book));
+        }
+        return saved;
     }
 
+    private BookBatchResult saveOne(Book book) {
+        try {
+            Book saved = transaction.execute(status -> {
+                Book created = repository.saveAndFlush(newBook(book));
+                publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, created));
+                return created;
+            });
+            isbnRegistry.register(saved.getIsbn());
+            return BookBatchResult.created(saved);
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e)) {
+                isbnRegistry.register(book.getIsbn());
+                return BookBatchResult.rejected(book, ISBN_CADASTRADO);
+            }
+            // os itens anteriores já commitaram: um 5xx esconderia quais foram gravados
+            return BookBatchResult.rejected(book, String.format(LIVRO_RECUSADO, e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    // lote só cria livros: um id ou versão vindos do cliente fariam o save virar merge
+    private static Book newBook(Book book) {
+        return book.toBuilder().id(null).version(null).build();
+    }
+
+    // sem transação aqui: um acerto no cache não deve pegar conexão; na falta, o
+    // findById do SimpleJpaRepository já roda numa transação somente leitura. O cache
+    // já carrega uma vez por id; o single-flight cobre a carga quando a entrada não fica
+    // (cache com tamanho 0, ou removida enquanto carregava)
     @Override
+    @Timed(TIMER)
     public Optional<Book> getById(Long id) {
-        return this.repository.findById(id);
+        if (coalescer.isPresent()) {
+            return bookCache.get(id, key -> coalescer.get().getById(key, () -> repository.findById(key)));
+        }
+        return bookCache.get(id, repository::findById);
     }
 
+    // um IN (...) por bloco de lookup-chunk-size ids, com os blocos além do primeiro em
+    // paralelo, cada um na sua transação somente leitura; sem transação aqui para não
+    // segurar uma conexão enquanto espera os outros blocos. O mapa segue a ordem dos ids
+    // pedidos e só traz os encontrados
     @Override
+    @Timed(TIMER)
+    public Map<Long, Book> getByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<CompletableFuture<List<Book>>> chunks = new ArrayList<>();
+        for (int from = lookupChunkSize; from < distinct.size(); from += lookupChunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + lookupChunkSize, distinct.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> findChunk(chunk), lookupExecutor));
+        }
+        Map<Long, Book> byId = new HashMap<>(distinct.size() * 2);
+        for (Book book : findChunk(distinct.subList(0, Math.min(lookupChunkSize, distinct.size())))) {
+            byId.put(book.getId(), book);
+        }
+        for (CompletableFuture<List<Book>> chunk : chunks) {
+            for (Book book : join(chunk)) {
+                byId.put(book.getId(), book);
+            }
+        }
+        Map<Long, Book> found = new LinkedHashMap<>(byId.size() * 2);
+        for (Long id : distinct) {
+            Book book = byId.get(id);
+            if (book != null) {
+                found.put(id, book);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    @Transactional
+    @Timed(TIMER)
     public void delete(Book book) {
         Book bookReturn = findById(book);
         repository.delete(bookReturn);
+        repository.flush();
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, bookReturn));
     }
 
+    // o flush incrementa a versão antes do evento
     @Override
+    @Transactional
+    @Timed(TIMER)
     public Book update(Book book) {
        Book bookReturn = findById(book);
-       return  repository.save(bookReturn);
+       Book updated = repository.save(bookReturn);
+       repository.flush();
+       publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+       return updated;
     }
 
+    // somente leitura: count, conteúdo e hidratação do índice numa só transação, e o
+    // session do Hibernate em read-only, sem snapshot de dirty checking nem flush. A
+    // transação abre dentro do single-flight: quem espera a consulta de outro não segura
+    // conexão do pool
     @Override
+    @Timed(TIMER)
     public Page<Book> find(Book filter, Pageable pageRequest) {
-        Example<Book> example = Example.of(filter, ExampleMatcher
-                .matching()
-                .withIgnoreCase()
-                .withIgnoreNullValues()
-                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+        if (coalescer.isPresent()) {
+            return coalescer.get().find(filter, pageRequest, () -> readOnly.execute(tx -> query(filter, pageRequest)));
+        }
+        return readOnly.execute(tx -> query(filter, pageRequest));
+    }
 
-        return repository.findAll(example, pageRequest);
+    private Page<Book> query(Book filter, Pageable pageRequest) {
+        if (searchIndex.isPresent() && searchIndex.get().supports(filter, pageRequest)) {
+            Page<Long> ids = searchIndex.get().search(filter, pageRequest);
+            return new PageImpl<>(hydrate(ids.getContent()), pageRequest, ids.getTotalElements());
+        }
+        if (counter.isPresent()) {
+            return counter.get().page(filter, pageRequest,
+                    () -> metrics.findByExample(() -> repository.findMatchingContent(filter, pageRequest)));
+        }
+        return metrics.findByExample(() -> repository.findMatching(filter, pageRequest));
+    }
+
+    // só as colunas pedidas, sem passar pelo índice de busca nem pelo cache
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(TIMER)
+    public Page<Book> find(Book filter, Set<String> fields, Pageable pageRequest) {
+        return repository.findFields(filter, fields, pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(TIMER)
+    public void export(Book filter, Consumer<Book> consumer) {
+        try (Stream<Book> books = repository.streamMatching(filter, exportFetchSize)) {
+            books.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(TIMER)
+    public CursorPage<Book> scroll(Book filter, BookCursor cursor, int size, boolean count) {
+        List<Book> rows = repository.findAfter(filter, cursor, size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = cursor.after(rows.get(size - 1)).encode();
+        }
+        // o mesmo filtro das linhas: o total e a página não divergem
+        Long total = count ? repository.countMatching(filter) : null;
+        return new CursorPage<>(rows, size, nextCursor, total);
+    }
+
+    private Set<String> existingIsbns(List<String> isbns) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < isbns.size(); from += IN_CHUNK) {
+            existing.addAll(repository.findExistingIsbns(isbns.subList(from, Math.min(from + IN_CHUNK, isbns.size()))));
+        }
+        return existing;
+    }
+
+    private List<Book> findChunk(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return readOnly.execute(tx -> repository.findAllById(ids));
+    }
+
+    // a exceção do bloco sai como a do repositório, para o ApiExceptionHandler
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private List<Book> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Book> byId = new HashMap<>(ids.size() * 2);
+        for (Book book : repository.findAllById(ids)) {
+            byId.put(book.getId(), book);
+        }
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
     }
 
 
     private void existByIsbn(Book book) {
-        if(repository.existsByIsbn(book.getIsbn())) {
+        if(isbnRegistry.mightExist(book.getIsbn()) && metrics.existsByIsbn(() -> repository.existsByIsbn(book.getIsbn()))) {
           throw new BusinessException(ISBN_CADASTRADO );
        }
     }
 
+    // o nome extraído varia por banco (no H2 vem como "PUBLIC.UK_BOOK_ISBN_INDEX_1 ON ...")
+    private boolean isIsbnViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase().contains(Book.UK_ISBN);
+    }
+
     private Book findById(Book book) {
         if(book.getId() == null) {
             throw new IllegalArgumentException("Book id cant be null");
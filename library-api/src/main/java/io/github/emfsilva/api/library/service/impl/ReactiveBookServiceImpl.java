@@ -0,0 +1,73 @@
+package io.github.emfsilva.api.library.service.impl;
+
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.ReactiveBookRepository;
+import io.github.emfsilva.api.library.service.ReactiveBookService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+// mesmas regras do BookServiceImpl, sem bloquear a thread do event loop
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    String ISBN_CADASTRADO = "Isbn já cadastrado";
+    private final ReactiveBookRepository repository;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Book> save(Book book) {
+        book.setId(null);
+        return repository.existsByIsbn(book.getIsbn())
+                .flatMap(exists -> exists
+                        ? Mono.<Book>error(new BusinessException(ISBN_CADASTRADO))
+                        : repository.insert(book))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> isIsbnViolation(e) ? new BusinessException(ISBN_CADASTRADO) : e);
+    }
+
+    @Override
+    public Mono<Book> getById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public Mono<Void> delete(Book book) {
+        if (book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id cant be null"));
+        }
+        return repository.delete(book);
+    }
+
+    @Override
+    public Mono<Book> update(Book book) {
+        if (book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id cant be null"));
+        }
+        return repository.update(book);
+    }
+
+    @Override
+    public Mono<Page<Book>> find(Book filter, Pageable pageRequest) {
+        // contagem só depois da página: em paralelo (zip) cada requisição prenderia duas conexões
+        // do pool e, com o pool ocupado por metades de requisições, nenhuma terminaria
+        return repository.findMatching(filter, pageRequest).collectList()
+                .flatMap(content -> repository.countMatching(filter)
+                        .<Page<Book>>map(total -> new PageImpl<>(content, pageRequest, total)));
+    }
+
+    private boolean isIsbnViolation(DataIntegrityViolationException e) {
+        return e.getMessage() != null && e.getMessage().toLowerCase(Locale.ROOT).contains(Book.UK_ISBN);
+    }
+}
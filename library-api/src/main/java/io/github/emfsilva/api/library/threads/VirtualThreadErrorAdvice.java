@@ -0,0 +1,41 @@
+package io.github.emfsilva.api.library.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+// com o método rodando em virtual thread o ResponseStatusException (404 do getById etc.)
+// é resolvido no dispatch ASYNC, onde o Tomcat não encaminha o sendError para /error;
+// aqui o corpo é montado pelo próprio BasicErrorController, igual ao modo síncrono
+@ControllerAdvice
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.threads.virtual", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class VirtualThreadErrorAdvice {
+
+    private final BasicErrorController errorController;
+
+    public VirtualThreadErrorAdvice(BasicErrorController errorController) {
+        this.errorController = errorController;
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleResponseStatusException(ResponseStatusException ex,
+                                                                             HttpServletRequest request) {
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, ex.getStatus().value());
+        request.setAttribute(RequestDispatcher.ERROR_REQUEST_URI, request.getRequestURI());
+        request.setAttribute(RequestDispatcher.ERROR_MESSAGE, ex.getReason());
+        return ResponseEntity.status(ex.getStatus()).headers(ex.getResponseHeaders())
+                .body(errorController.error(request).getBody());
+    }
+}
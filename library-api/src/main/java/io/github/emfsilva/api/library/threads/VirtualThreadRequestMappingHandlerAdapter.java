@@ -0,0 +1,64 @@
+package io.github.emfsilva.api.library.threads;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import javax.servlet.ServletResponse;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+// executa o corpo dos métodos dos controllers como um Callable do Spring MVC: os argumentos
+// (corpo, validação) são resolvidos na thread do Tomcat, o método roda no executor assíncrono
+// (virtual threads) e a resposta é escrita no dispatch ASYNC, como num controller que
+// devolvesse Callable; a thread do Tomcat fica livre enquanto o método espera o banco
+public class VirtualThreadRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        return writesResponse(handlerMethod) || isAsync(handlerMethod)
+                ? super.createInvocableHandlerMethod(handlerMethod)
+                : new OffloadedHandlerMethod(handlerMethod);
+    }
+
+    // import/export escrevem direto na resposta: no dispatch ASYNC o Spring não saberia
+    // que a requisição já foi respondida, por isso continuam na thread do Tomcat
+    private static boolean writesResponse(HandlerMethod handlerMethod) {
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            Class<?> type = parameter.getParameterType();
+            if (ServletResponse.class.isAssignableFrom(type) || OutputStream.class.isAssignableFrom(type)
+                    || Writer.class.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // quem já devolve DeferredResult (long-poll do /api/books/changes) não prende thread
+    // nenhuma enquanto espera; só voltaria do executor para começar outra espera
+    private static boolean isAsync(HandlerMethod handlerMethod) {
+        Class<?> type = handlerMethod.getReturnType().getParameterType();
+        return DeferredResult.class.isAssignableFrom(type) || Callable.class.isAssignableFrom(type)
+                || CompletionStage.class.isAssignableFrom(type);
+    }
+
+    private static class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                       Object... providedArgs) throws Exception {
+            Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            return (Callable<Object>) () -> doInvoke(args);
+        }
+    }
+}
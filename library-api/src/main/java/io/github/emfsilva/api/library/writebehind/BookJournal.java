@@ -0,0 +1,153 @@
+package io.github.emfsilva.api.library.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// journal append-only dos livros aceitos e ainda não gravados, uma linha NDJSON por
+// livro; sem fsync a linha sobrevive à queda do processo, com fsync também à da máquina
+class BookJournal implements AutoCloseable {
+
+    private final Path path;
+    private final boolean fsync;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private FileChannel channel;
+    // linhas no arquivo desde a última vez que ele foi zerado ou reescrito
+    private int lines;
+
+    BookJournal(Path path, boolean fsync, ObjectMapper objectMapper) {
+        this.path = path;
+        this.fsync = fsync;
+        this.writer = objectMapper.writerFor(BookDTO.class);
+        this.reader = objectMapper.readerFor(BookDTO.class);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // appended roda sob o mesmo lock, depois da linha escrita
+    synchronized void append(BookDTO book, Runnable appended) {
+        try {
+            write(channel, book);
+            if (fsync) {
+                channel.force(false);
+            }
+            lines++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        appended.run();
+    }
+
+    // linhas incompletas (queda no meio de uma escrita) são descartadas
+    synchronized List<BookDTO> readAll() {
+        List<BookDTO> books = new ArrayList<>();
+        try (BufferedReader lines = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    try {
+                        books.add(reader.readValue(line));
+                    } catch (IOException e) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return books;
+    }
+
+    // só zera o arquivo se nada aceito estiver pendente; o teste roda sob o mesmo lock
+    // do append, então uma linha nova nunca é apagada antes de ser gravada no banco
+    synchronized boolean truncateIf(BooleanSupplier idle) {
+        if (!idle.getAsBoolean()) {
+            return false;
+        }
+        try {
+            if (channel.size() > 0) {
+                channel.truncate(0);
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+            lines = 0;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // com mais de maxLines linhas, troca o arquivo por um novo só com os pendentes: escrito
+    // ao lado e movido por cima, então uma queda no meio deixa o antigo inteiro
+    synchronized boolean compactIf(int maxLines, Supplier<List<BookDTO>> pending) {
+        if (lines <= maxLines) {
+            return false;
+        }
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        List<BookDTO> books = pending.get();
+        try {
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (BookDTO book : books) {
+                    write(out, book);
+                }
+                if (fsync) {
+                    out.force(false);
+                }
+            }
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = open(path);
+            lines = books.size();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(FileChannel target, BookDTO book) throws IOException {
+        byte[] json = writer.writeValueAsBytes(book);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n');
+        line.flip();
+        while (line.hasRemaining()) {
+            target.write(line);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package io.github.emfsilva.api.library.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.isbn.IsbnRegistry;
+import io.github.emfsilva.api.library.mapper.BookMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Paths;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// write-behind do POST /api/books: o livro validado recebe um id da própria book_seq,
+// vai para uma fila limitada e é respondido com 202; uma thread grava a fila em lotes
+// pelo JDBC. O isbn fica reservado no IsbnRegistry até o livro chegar ao banco
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "library.write-behind.enabled", havingValue = "true")
+public class BookWriteBehind implements SmartInitializingSingleton {
+
+    static final String ISBN_CADASTRADO = "Isbn já cadastrado";
+    static final String FILA_CHEIA = "Fila de gravação cheia, tente novamente em instantes";
+    static final String INSERT = "insert into book (id, title, author, isbn, version) values (?, ?, ?, ?, 0)";
+    private static final int IN_CHUNK = 1_000;
+
+    private final BookRepository repository;
+    private final IsbnRegistry isbnRegistry;
+    private final ApplicationEventPublisher publisher;
+    private final BookMapper bookMapper;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+    private final BookJournal journal;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final ConcurrentLinkedQueue<Book> queue = new ConcurrentLinkedQueue<>();
+    // aceitos e ainda não gravados (na fila ou no lote em andamento)
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter flushed;
+    private final Counter rejected;
+    private List<Book> retry;
+    // o accept confere e enfileira sob a leitura; o stop fecha a entrada sob a escrita, e
+    // nenhum livro aceito chega à fila depois do flush final
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private boolean accepting = true;
+
+    public BookWriteBehind(BookRepository repository, IsbnRegistry isbnRegistry, ApplicationEventPublisher publisher,
+                           BookMapper bookMapper, ObjectMapper objectMapper, JdbcTemplate jdbc,
+                           PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                           MeterRegistry registry,
+                           @Value("${library.write-behind.capacity:10000}") int capacity,
+                           @Value("${library.write-behind.batch-size:500}") int batchSize,
+                           @Value("${library.write-behind.flush-interval:50ms}") Duration flushInterval,
+                           @Value("${library.write-behind.journal:}") String journal,
+                           @Value("${library.write-behind.journal-fsync:false}") boolean journalFsync) {
+        this.repository = repository;
+        this.isbnRegistry = isbnRegistry;
+        this.publisher = publisher;
+        this.bookMapper = bookMapper;
+        this.jdbc = jdbc;
+        // o gerenciador do JPA: o BookChangeLog grava as alterações pelo EntityManager na
+        // mesma transação dos inserts
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = sessionFactory.getMetamodel().entityPersister(Book.class).getIdentifierGenerator();
+        this.journal = journal.isEmpty() ? null : new BookJournal(Paths.get(journal), journalFsync, objectMapper);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        Gauge.builder("library.book.write.behind.pending", pending, AtomicInteger::get).register(registry);
+        this.flushed = Counter.builder("library.book.write.behind.flushed").register(registry);
+        this.rejected = Counter.builder("library.book.write.behind.rejected")
+                .description("livros aceitos com 202 que o banco recusou na gravação")
+                .register(registry);
+    }
+
+    // depois de todos os singletons, quando os @EventListener já estão registrados (os
+    // eventos do replay chegam ao change log, caches e índice) e antes de o servidor web
+    // subir: o journal da execução anterior é gravado antes de qualquer livro novo ser aceito
+    @Override
+    public void afterSingletonsInstantiated() {
+        start();
+    }
+
+    public void start() {
+        if (journal != null) {
+            replay();
+        }
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Book accept(Book book) {
+        gate.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new WriteBehindQueueFullException(FILA_CHEIA);
+            }
+            return enqueue(book);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    private Book enqueue(Book book) {
+        String isbn = book.getIsbn();
+        if (!isbnRegistry.reserve(isbn)) {
+            throw new BusinessException(ISBN_CADASTRADO);
+        }
+        boolean queued = false;
+        try {
+            if (isbnRegistry.mightExist(isbn) && repository.existsByIsbn(isbn)) {
+                throw new BusinessException(ISBN_CADASTRADO);
+            }
+            if (pending.incrementAndGet() > capacity) {
+                pending.decrementAndGet();
+                throw new WriteBehindQueueFullException(FILA_CHEIA);
+            }
+            Book accepted;
+            try {
+                accepted = book.toBuilder().id(nextId()).version(0L).build();
+                if (journal != null) {
+                    // entra na fila sob o lock do journal: a compactação vê a fila e o arquivo iguais
+                    journal.append(bookMapper.toDto(accepted), () -> queue.offer(accepted));
+                } else {
+                    queue.offer(accepted);
+                }
+            } catch (RuntimeException e) {
+                pending.decrementAndGet();
+                throw e;
+            }
+            queued = true;
+            return accepted;
+        } finally {
+            if (!queued) {
+                isbnRegistry.release(isbn);
+            }
+        }
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // uma thread só: o lote que falhou por indisponibilidade do banco volta na próxima rodada
+    void flush() {
+        try {
+            List<Book> batch = retry != null ? retry : drain();
+            while (!batch.isEmpty()) {
+                retry = batch;
+                List<Book> inserted = insert(batch);
+                retry = null;
+                completed(batch, inserted);
+                batch = drain();
+            }
+            // sob carga a fila nunca esvazia: o journal é reescrito só com os pendentes quando
+            // as linhas já gravadas passam do dobro da capacidade
+            if (journal != null && !journal.truncateIf(() -> pending.get() == 0)) {
+                journal.compactIf(2 * capacity, this::queued);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar {} livros do write-behind, nova tentativa em {} ms",
+                    retry == null ? 0 : retry.size(), flushInterval.toMillis(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        gate.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private Long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) idGenerator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    private List<Book> drain() {
+        List<Book> batch = new ArrayList<>(Math.min(batchSize, pending.get()));
+        Book book;
+        while (batch.size() < batchSize && (book = queue.poll()) != null) {
+            batch.add(book);
+        }
+        return batch;
+    }
+
+    // lote num só round trip; se o banco recusar alguma linha (isbn gravado por outro
+    // caminho, id já gravado antes de uma queda), cai para um insert por linha. Os eventos
+    // CREATED saem dentro da transação: o registro no book_change commita junto com os livros
+    private List<Book> insert(List<Book> batch) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbc.batchUpdate(INSERT, rows(batch));
+                created(batch);
+            });
+            return batch;
+        } catch (DataIntegrityViolationException e) {
+            List<Book> inserted = transaction.execute(status -> {
+                List<Book> rows = insertEach(batch);
+                created(rows);
+                return rows;
+            });
+            rejected.increment(batch.size() - inserted.size());
+            return inserted;
+        }
+    }
+
+    // um savepoint por linha na conexão da transação (o JpaTransactionManager não expõe
+    // savepoints): a linha recusada volta sozinha, e qualquer outra falha desfaz o lote
+    // inteiro, que a próxima rodada refaz do zero. O id vem da book_seq, então um id já
+    // gravado é este mesmo livro (commit sem confirmação antes de uma queda) e conta como
+    // gravado, com registro do isbn e evento
+    private List<Book> insertEach(List<Book> batch) {
+        List<Book> inserted = new ArrayList<>(batch.size());
+        for (Book book : batch) {
+            Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) connection -> connection.setSavepoint());
+            try {
+                jdbc.update(INSERT, book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+                jdbc.execute((ConnectionCallback<Void>) connection -> {
+                    connection.releaseSavepoint(savepoint);
+                    return null;
+                });
+                inserted.add(book);
+            } catch (DataIntegrityViolationException rowError) {
+                jdbc.execute((ConnectionCallback<Void>) connection -> {
+                    connection.rollback(savepoint);
+                    return null;
+                });
+                if (exists(book.getId())) {
+                    inserted.add(book);
+                } else {
+                    log.warn("Livro {} (isbn {}) recusado pelo banco no write-behind", book.getId(), book.getIsbn());
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private boolean exists(Long id) {
+        Integer rows = jdbc.queryForObject("select count(*) from book where id = ?", Integer.class, id);
+        return rows != null && rows > 0;
+    }
+
+    private List<BookDTO> queued() {
+        List<BookDTO> books = new ArrayList<>(pending.get());
+        queue.forEach(book -> books.add(bookMapper.toDto(book)));
+        return books;
+    }
+
+    private void created(List<Book> inserted) {
+        inserted.forEach(book -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, book)));
+    }
+
+    private void completed(List<Book> batch, List<Book> inserted) {
+        inserted.forEach(book -> isbnRegistry.register(book.getIsbn()));
+        for (Book book : batch) {
+            isbnRegistry.release(book.getIsbn());
+        }
+        flushed.increment(inserted.size());
+        pending.addAndGet(-batch.size());
+    }
+
+    private void replay() {
+        List<Book> books = new ArrayList<>();
+        journal.readAll().forEach(dto -> books.add(bookMapper.toEntity(dto)));
+        if (books.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = existingIds(books);
+        List<Book> missing = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (!existing.contains(book.getId())) {
+                missing.add(book);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<Book> inserted = insert(missing.subList(from, Math.min(from + batchSize, missing.size())));
+            flushed.increment(inserted.size());
+        }
+        journal.truncateIf(() -> true);
+        log.info("Journal do write-behind reaplicado: {} livros, {} já estavam gravados",
+                books.size(), books.size() - missing.size());
+    }
+
+    private Set<Long> existingIds(List<Book> books) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbc);
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < books.size(); from += IN_CHUNK) {
+            List<Long> ids = new ArrayList<>(IN_CHUNK);
+            books.subList(from, Math.min(from + IN_CHUNK, books.size())).forEach(book -> ids.add(book.getId()));
+            existing.addAll(named.queryForList("select id from book where id in (:ids)",
+                    new MapSqlParameterSource("ids", ids), Long.class));
+        }
+        return existing;
+    }
+
+    private static List<Object[]> rows(List<Book> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Book book : batch) {
+            rows.add(new Object[]{book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()});
+        }
+        return rows;
+    }
+}
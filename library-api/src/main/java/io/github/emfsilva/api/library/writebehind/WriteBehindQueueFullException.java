@@ -0,0 +1,8 @@
+package io.github.emfsilva.api.library.writebehind;
+
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    public WriteBehindQueueFullException(String message) {
+        super(message);
+    }
+}
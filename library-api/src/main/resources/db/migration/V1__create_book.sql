@@ -0,0 +1,12 @@
+-- schema que o Hibernate gerava para a entidade Book (ddl-auto=create-drop)
+create sequence book_seq start with 1 increment by 50;
+
+create table book (
+    id bigint not null,
+    title varchar(255),
+    author varchar(255),
+    isbn varchar(255),
+    version bigint not null,
+    constraint pk_book primary key (id),
+    constraint uk_book_isbn unique (isbn)
+);
@@ -0,0 +1,6 @@
+-- o isbn já tem índice único pela uk_book_isbn (existsByIsbn, findExistingIsbns)
+
+-- paginação por cursor ordenada por title/author (BookCursor): o id desempata a chave,
+-- então o índice composto entrega as linhas já na ordem da consulta
+create index ix_book_title_id on book (title, id);
+create index ix_book_author_id on book (author, id);
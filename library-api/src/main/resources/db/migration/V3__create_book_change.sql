@@ -0,0 +1,11 @@
+-- log ordenado das alterações de livros (GET /api/books/changes); o id é o offset do consumidor
+create sequence book_change_seq start with 1 increment by 50;
+
+create table book_change (
+    id bigint not null,
+    type varchar(10) not null,
+    book_id bigint not null,
+    version bigint,
+    changed_at timestamp not null,
+    constraint pk_book_change primary key (id)
+);
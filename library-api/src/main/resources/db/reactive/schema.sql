@@ -0,0 +1,14 @@
+create sequence if not exists book_seq start with 1 increment by 1;
+
+create table if not exists book (
+    id bigint default next value for book_seq primary key,
+    title varchar(255),
+    author varchar(255),
+    isbn varchar(255),
+    version bigint default 0 not null,
+    constraint uk_book_isbn unique (isbn)
+);
+
+-- mesmos índices da V2 de db/migration
+create index if not exists ix_book_title_id on book (title, id);
+create index if not exists ix_book_author_id on book (author, id);
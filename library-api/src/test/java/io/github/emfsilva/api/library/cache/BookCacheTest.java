@@ -0,0 +1,86 @@
+package io.github.emfsilva.api.library.cache;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class BookCacheTest {
+
+    BookCache cache = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Deve ir ao banco só no primeiro acesso ao mesmo id")
+    void readThroughTest() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Optional<Book>> loader = id -> {
+            loads.incrementAndGet();
+            return Optional.of(createBook(id));
+        };
+
+        cache.get(1L, loader);
+        Optional<Book> book = cache.get(1L, loader);
+
+        Assertions.assertThat(book).contains(createBook(1L));
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(cache.stats().hitCount()).isEqualTo(1);
+        Assertions.assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar livros inexistentes")
+    void absentTest() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Optional<Book>> loader = id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        Assertions.assertThat(cache.get(1L, loader)).isEmpty();
+        Assertions.assertThat(cache.get(1L, loader)).isEmpty();
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Alterar o livro devolvido não deve alterar o cache")
+    void copyTest() {
+        cache.get(1L, id -> Optional.of(createBook(id))).get().setTitle("Alterado");
+
+        Book book = cache.get(1L, id -> Optional.empty()).get();
+
+        Assertions.assertThat(book.getTitle()).isEqualTo("As Aventuras");
+    }
+
+    @Test
+    @DisplayName("Deve remover o livro do cache quando ele for alterado")
+    void evictOnChangeTest() {
+        cache.get(1L, id -> Optional.of(createBook(id)));
+
+        cache.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, createBook(1L)));
+
+        Assertions.assertThat(cache.get(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve carregar fora do lock do cache e descartar a carga se o livro mudar durante ela")
+    void evictDuringLoadTest() {
+        Optional<Book> loaded = cache.get(1L, id -> {
+            cache.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, createBook(id)));
+            return Optional.of(createBook(id));
+        });
+
+        Assertions.assertThat(loaded).contains(createBook(1L));
+        Assertions.assertThat(cache.size()).isZero();
+    }
+
+    private Book createBook(Long id) {
+        return Book.builder().id(id).isbn("123").author("Fulano").title("As Aventuras").build();
+    }
+}
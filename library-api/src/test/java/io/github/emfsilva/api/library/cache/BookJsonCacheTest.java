@@ -0,0 +1,50 @@
+package io.github.emfsilva.api.library.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.mapper.DirectBookMapper;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+class BookJsonCacheTest {
+
+    BookService service = Mockito.mock(BookService.class);
+
+    BookJsonCache cache = new BookJsonCache(service, new DirectBookMapper(), new ObjectMapper(),
+            100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Deve guardar o json do livro e reaproveitá-lo até a próxima alteração")
+    void serializedCacheTest() {
+        Mockito.when(service.getById(1L))
+                .thenReturn(Optional.of(Book.builder().id(1L).isbn("123").author("Fulano").title("As Aventuras").version(3L).build()));
+
+        BookJsonCache.Entry first = cache.get(1L).get();
+        BookJsonCache.Entry second = cache.get(1L).get();
+        cache.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, Book.builder().id(1L).build()));
+        cache.get(1L);
+
+        Assertions.assertThat(new String(first.getJson(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"title\":\"As Aventuras\",\"author\":\"Fulano\",\"isbn\":\"123\"}");
+        Assertions.assertThat(first.getVersion()).isEqualTo(3L);
+        Assertions.assertThat(second).isSameAs(first);
+        Mockito.verify(service, Mockito.times(2)).getById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar vazio para um livro inexistente")
+    void absentTest() {
+        Mockito.when(service.getById(1L)).thenReturn(Optional.empty());
+
+        Assertions.assertThat(cache.get(1L)).isEmpty();
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.emfsilva.api.library.changelog;
+
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.entity.BookChange;
+import io.github.emfsilva.api.library.repository.BookChangeRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// cada teste controla as próprias transações, como fariam requisições concorrentes
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "library.change-log.enabled=true")
+@Import({SchemaMigrationConfig.class, BookChangeLog.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookChangeLogTest {
+
+    @Autowired
+    BookChangeLog changeLog;
+
+    @Autowired
+    BookChangeRepository repository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    long start;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        start = changeLog.horizon();
+    }
+
+    @Test
+    @DisplayName("Deve gravar a alteração na transação de quem publicou o evento")
+    void appendInCallerTransactionTest() {
+        transaction.executeWithoutResult(status -> changeLog.onBookChanged(event(BookChangedEvent.Type.CREATED, 1L)));
+        transaction.executeWithoutResult(status -> {
+            changeLog.onBookChanged(event(BookChangedEvent.Type.UPDATED, 2L));
+            status.setRollbackOnly();
+        });
+        changeLog.onBookChanged(event(BookChangedEvent.Type.DELETED, 3L));
+
+        List<BookChange> changes = changeLog.read(start, 10);
+
+        Assertions.assertThat(changes).extracting(BookChange::getBookId).containsExactly(1L, 3L);
+        Assertions.assertThat(changes).extracting(BookChange::getType)
+                .containsExactly(BookChangedEvent.Type.CREATED, BookChangedEvent.Type.DELETED);
+        Assertions.assertThat(changes.get(0).getId()).isLessThan(changes.get(1).getId());
+        Assertions.assertThat(changes.get(0).getVersion()).isZero();
+    }
+
+    @Test
+    @DisplayName("Não deve entregar um offset maior enquanto um menor ainda estiver em aberto")
+    void horizonTest() {
+        TransactionStatus open = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        changeLog.onBookChanged(event(BookChangedEvent.Type.CREATED, 1L));
+
+        CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status ->
+                changeLog.onBookChanged(event(BookChangedEvent.Type.CREATED, 2L)))).join();
+
+        Assertions.assertThat(changeLog.horizon()).isEqualTo(start);
+        Assertions.assertThat(repository.count()).isPositive();
+
+        transactionManager.commit(open);
+
+        Assertions.assertThat(changeLog.read(start, 10)).extracting(BookChange::getBookId).containsExactly(1L, 2L);
+        Assertions.assertThat(changeLog.read(start, 1)).extracting(BookChange::getBookId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Deve completar a espera do long-poll no commit da próxima alteração")
+    void pollTest() throws Exception {
+        CompletableFuture<List<BookChange>> poll = changeLog.poll(start, 10);
+        Assertions.assertThat(poll).isNotDone();
+
+        transaction.executeWithoutResult(status -> changeLog.onBookChanged(event(BookChangedEvent.Type.UPDATED, 7L)));
+
+        Assertions.assertThat(poll.get(5, TimeUnit.SECONDS)).extracting(BookChange::getBookId).containsExactly(7L);
+        Assertions.assertThat(changeLog.poll(start, 10)).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Deve atender todas as esperas com uma única leitura, cada uma com a sua fatia")
+    void notifyWaitersWithOneReadTest() throws Exception {
+        // log próprio sobre um repositório que conta as leituras
+        BookChangeRepository countingRepository = Mockito.mock(BookChangeRepository.class,
+                AdditionalAnswers.delegatesTo(repository));
+        BookChangeLog log = new BookChangeLog(countingRepository, transactionManager);
+        ReflectionTestUtils.setField(log, "entityManager", entityManager);
+        log.start();
+        try {
+            // a transação aberta segura o horizonte enquanto as esperas são registradas
+            TransactionStatus open = transactionManager.getTransaction(new DefaultTransactionDefinition());
+            log.onBookChanged(event(BookChangedEvent.Type.CREATED, 1L));
+            CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+                log.onBookChanged(event(BookChangedEvent.Type.CREATED, 2L));
+                log.onBookChanged(event(BookChangedEvent.Type.CREATED, 3L));
+            })).get(5, TimeUnit.SECONDS);
+            long last = repository.findLastId();
+
+            CompletableFuture<List<BookChange>> first = log.poll(start, 1);
+            CompletableFuture<List<BookChange>> all = log.poll(start, 10);
+            CompletableFuture<List<BookChange>> tail = log.poll(last - 1, 10);
+            Mockito.clearInvocations(countingRepository);
+
+            transactionManager.commit(open);
+
+            Assertions.assertThat(first.get(5, TimeUnit.SECONDS)).extracting(BookChange::getBookId)
+                    .containsExactly(1L);
+            Assertions.assertThat(all.get(5, TimeUnit.SECONDS)).extracting(BookChange::getBookId)
+                    .containsExactly(1L, 2L, 3L);
+            Assertions.assertThat(tail.get(5, TimeUnit.SECONDS)).extracting(BookChange::getBookId)
+                    .containsExactly(3L);
+            Mockito.verify(countingRepository)
+                    .findRange(Mockito.eq(start), Mockito.anyLong(), Mockito.any(Pageable.class));
+            Mockito.verifyNoMoreInteractions(countingRepository);
+        } finally {
+            log.stop();
+            // o log do contexto não viu os offsets gravados por este
+            changeLog.start();
+        }
+    }
+
+    private BookChangedEvent event(BookChangedEvent.Type type, Long id) {
+        return new BookChangedEvent(type, Book.builder().id(id).version(0L).build());
+    }
+}
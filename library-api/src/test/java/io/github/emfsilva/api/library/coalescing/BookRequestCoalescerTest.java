@@ -0,0 +1,63 @@
+package io.github.emfsilva.api.library.coalescing;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Optional;
+
+class BookRequestCoalescerTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    BookRequestCoalescer coalescer = new BookRequestCoalescer(registry);
+
+    @Test
+    @DisplayName("Deve tratar filtros que só diferem na caixa como a mesma busca")
+    void findKeyTest() {
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("title"));
+        BookRequestCoalescer.FindKey key = new BookRequestCoalescer.FindKey(
+                Book.builder().title("As Aventuras").author("Fulano").build(), pageRequest);
+
+        Assertions.assertThat(key).isEqualTo(new BookRequestCoalescer.FindKey(
+                Book.builder().title("as aventuras").author("FULANO").build(), PageRequest.of(0, 10, Sort.by("title"))));
+        Assertions.assertThat(key.hashCode()).isEqualTo(new BookRequestCoalescer.FindKey(
+                Book.builder().title("as aventuras").author("FULANO").build(), pageRequest).hashCode());
+        Assertions.assertThat(key).isNotEqualTo(new BookRequestCoalescer.FindKey(
+                Book.builder().title("As Aventuras").author("Fulano").build(), PageRequest.of(1, 10, Sort.by("title"))));
+        Assertions.assertThat(key).isNotEqualTo(new BookRequestCoalescer.FindKey(
+                Book.builder().title("As Aventuras").build(), pageRequest));
+    }
+
+    @Test
+    @DisplayName("Deve contar as leituras executadas por operação")
+    void metricsTest() {
+        coalescer.getById(1L, () -> Optional.of(Book.builder().id(1L).build()));
+        coalescer.getById(2L, Optional::empty);
+
+        Assertions.assertThat(registry.get("library.book.single.flight").tag("operation", "getById")
+                .tag("outcome", "executed").counter().count()).isEqualTo(2);
+        Assertions.assertThat(registry.get("library.book.single.flight").tag("operation", "getById")
+                .tag("outcome", "shared").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve esquecer as leituras em andamento quando um livro mudar")
+    void forgetOnChangeTest() {
+        Book changed = Book.builder().id(1L).build();
+
+        // dentro da leitura em andamento: a alteração chega antes dela terminar
+        Optional<Book> result = coalescer.getById(1L, () -> {
+            coalescer.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, changed));
+            return coalescer.getById(1L, () -> Optional.of(changed));
+        });
+
+        Assertions.assertThat(result).containsSame(changed);
+        Assertions.assertThat(registry.get("library.book.single.flight").tag("operation", "getById")
+                .tag("outcome", "executed").counter().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.emfsilva.api.library.coalescing;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve executar uma única vez para chamadas concorrentes com a mesma chave")
+    void coalesceTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<SingleFlight.Result<Integer>> leader = executor.submit(() -> singleFlight.execute("a", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return 42;
+        }));
+        awaitInFlight(1);
+
+        List<Future<SingleFlight.Result<Integer>>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute("a", calls::incrementAndGet)));
+        }
+        // os seguidores já entraram na execução do líder, que continua presa
+        Thread.sleep(100);
+        release.countDown();
+
+        Assertions.assertThat(leader.get(5, TimeUnit.SECONDS).getValue()).isEqualTo(42);
+        Assertions.assertThat(leader.get().isShared()).isFalse();
+        for (Future<SingleFlight.Result<Integer>> follower : followers) {
+            Assertions.assertThat(follower.get(5, TimeUnit.SECONDS).getValue()).isEqualTo(42);
+        }
+        Assertions.assertThat(calls.get()).isEqualTo(1);
+        Assertions.assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve repassar a exceção do líder aos seguidores")
+    void exceptionTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Result<Integer>> leader = executor.submit(() -> singleFlight.execute("a", () -> {
+            await(release);
+            throw new IllegalStateException("falhou");
+        }));
+        awaitInFlight(1);
+        Future<SingleFlight.Result<Integer>> follower = executor.submit(() -> singleFlight.execute("a", () -> 1));
+        Thread.sleep(100);
+        release.countDown();
+
+        Assertions.assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        Assertions.assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("falhou");
+    }
+
+    @Test
+    @DisplayName("Não deve guardar o resultado depois que a execução termina")
+    void notCachedTest() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("a", calls::incrementAndGet);
+        SingleFlight.Result<Integer> second = singleFlight.execute("a", calls::incrementAndGet);
+
+        Assertions.assertThat(second.getValue()).isEqualTo(2);
+        Assertions.assertThat(second.isShared()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve começar uma execução nova depois do forget, sem derrubar a que está em andamento")
+    void forgetTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Result<Integer>> stale = executor.submit(() -> singleFlight.execute("a", () -> {
+            await(release);
+            return 1;
+        }));
+        awaitInFlight(1);
+
+        singleFlight.forget("a");
+        SingleFlight.Result<Integer> fresh = singleFlight.execute("a", () -> 2);
+        release.countDown();
+
+        Assertions.assertThat(fresh.getValue()).isEqualTo(2);
+        Assertions.assertThat(fresh.isShared()).isFalse();
+        Assertions.assertThat(stale.get(5, TimeUnit.SECONDS).getValue()).isEqualTo(1);
+        Assertions.assertThat(singleFlight.size()).isZero();
+    }
+
+    private void awaitInFlight(int size) throws InterruptedException {
+        while (singleFlight.size() < size) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
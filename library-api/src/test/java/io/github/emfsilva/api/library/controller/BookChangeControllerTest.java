@@ -0,0 +1,101 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.changelog.BookChangeLog;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.entity.BookChange;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookChangeController.class, properties = "library.change-log.enabled=true")
+@Import({BookMetrics.class, SimpleMeterRegistry.class})
+@AutoConfigureMockMvc
+class BookChangeControllerTest {
+
+    static String CHANGES_API = "/api/books/changes";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookChangeLog changeLog;
+
+    @Test
+    @DisplayName("Deve devolver as alterações depois do offset e o next da próxima chamada")
+    void readChangesTest() throws Exception {
+        BDDMockito.given(changeLog.read(10L, 2)).willReturn(List.of(change(11L, 1L), change(14L, 2L)));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(CHANGES_API + "?after=10&limit=2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes.length()").value(2))
+                .andExpect(jsonPath("changes[0].offset").value(11))
+                .andExpect(jsonPath("changes[0].type").value("UPDATED"))
+                .andExpect(jsonPath("changes[1].bookId").value(2))
+                .andExpect(jsonPath("next").value(14));
+        Mockito.verify(changeLog, Mockito.never()).poll(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve esperar pela próxima alteração no long-poll")
+    void longPollTest() throws Exception {
+        CompletableFuture<List<BookChange>> poll = new CompletableFuture<>();
+        BDDMockito.given(changeLog.poll(20L, 100)).willReturn(poll);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(CHANGES_API + "?after=20&wait=10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        poll.complete(List.of(change(21L, 5L)));
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes[0].bookId").value(5))
+                .andExpect(jsonPath("next").value(21));
+    }
+
+    @Test
+    @DisplayName("Deve manter o after como next quando não houver alterações")
+    void noChangesTest() throws Exception {
+        BDDMockito.given(changeLog.read(30L, 100)).willReturn(List.of());
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(CHANGES_API + "?after=30"))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes.length()").value(0))
+                .andExpect(jsonPath("next").value(30));
+    }
+
+    private BookChange change(Long offset, Long bookId) {
+        return BookChange.builder().id(offset).type(BookChangedEvent.Type.UPDATED).bookId(bookId).version(1L)
+                .changedAt(Instant.parse("2020-10-01T10:00:00Z")).build();
+    }
+}
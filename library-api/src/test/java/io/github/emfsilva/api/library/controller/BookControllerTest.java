@@ -2,16 +2,24 @@ package io.github.emfsilva.api.library.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.config.MapperConfig;
 import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
 import io.github.emfsilva.api.library.model.dto.BookDTO;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
 import io.github.emfsilva.api.library.service.BookService;
 import lombok.val;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -19,10 +27,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -31,8 +42,11 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.blankOrNullString;
 import static org.hamcrest.Matchers.hasSize;
@@ -43,8 +57,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 //@RunWith(SpringRunner.class)
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@WebMvcTest
+@WebMvcTest(BookController.class)
 @AutoConfigureMockMvc
+@Import({MapperConfig.class, BookMetrics.class, SimpleMeterRegistry.class})
 public class BookControllerTest {
 
     static String BOOK_API = "/api/books";
@@ -56,6 +71,9 @@ public class BookControllerTest {
     @MockBean
     BookService service;
 
+    @Autowired
+    SimpleMeterRegistry meterRegistry;
+
     @Test
     @DisplayName("Deve criar um livro com sucesso")
     public void createBookTest() throws Exception {
@@ -162,6 +180,28 @@ public class BookControllerTest {
     }
 
 
+    @Test
+    @DisplayName("Deve contar as respostas 404 e as recusas por regra de negócio")
+    void errorCountersTest() throws Exception {
+        BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willThrow(new BusinessException(ISBN_CADASTRADO));
+        double notFound = meterRegistry.get("library.book.not.found").counter().count();
+        double businessErrors = meterRegistry.get("library.book.business.errors").counter().count();
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/" + 1L)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(createNewBookDTO())))
+                .andExpect(status().isBadRequest());
+
+        Assertions.assertThat(meterRegistry.get("library.book.not.found").counter().count())
+                .isEqualTo(notFound + 1);
+        Assertions.assertThat(meterRegistry.get("library.book.business.errors").counter().count())
+                .isEqualTo(businessErrors + 1);
+    }
+
     @Test
     @DisplayName("Deve deletar um livro")
     void deleteBookTest() throws Exception {
@@ -237,6 +277,87 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Deve devolver o ETag do livro e 304 quando o cliente já tiver a versão atual")
+    void getBookNotModifiedTest() throws Exception {
+        Book book = createNewBook().toBuilder().version(2L).build();
+        BDDMockito.given(service.getById(book.getId())).willReturn(Optional.of(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/" + book.getId())))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\""));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/" + book.getId()))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/" + book.getId()))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Deve devolver 304 na busca enquanto nenhum livro da página mudar")
+    void findBooksNotModifiedTest() throws Exception {
+        Book book = createNewBook().toBuilder().version(0L).build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 10), 1));
+
+        String etag = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?title=Aventuras")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?title=Aventuras")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        book.setVersion(1L);
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?title=Aventuras")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Deve atualizar um livro quando o If-Match conferir com a versão atual")
+    void updateBookIfMatchTest() throws Exception {
+        Book current = Book.builder().id(1L).author("some author").title("some title").isbn("321").version(1L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(current));
+        BDDMockito.given(service.update(Mockito.any(Book.class)))
+                .willAnswer(invocation -> invocation.<Book>getArgument(0).toBuilder().version(2L).build());
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .param("title", "Novo").param("author", "Emerson")
+                .header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("title").value("Novo"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 412 ao atualizar ou deletar com If-Match de uma versão antiga")
+    void staleIfMatchTest() throws Exception {
+        Book current = createNewBook().toBuilder().version(3L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(current));
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .param("title", "Novo").header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("O livro foi alterado por outra requisição"));
+        mvc.perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/1")).header(HttpHeaders.IF_MATCH, "W/\"3\""))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(service, Mockito.never()).update(Mockito.any(Book.class));
+        Mockito.verify(service, Mockito.never()).delete(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 412 quando outra escrita alterar o livro antes do update")
+    void concurrentUpdateTest() throws Exception {
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(createNewBook().toBuilder().version(1L).build()));
+        BDDMockito.given(service.update(Mockito.any(Book.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1")).param("title", "Novo"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @DisplayName("Deve filtrar livros")
     void findBooksTest() throws Exception {
@@ -257,9 +378,179 @@ public class BookControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", Matchers.hasSize(1)))
                 .andExpect(jsonPath("totalElements").value(1))
-                .andExpect(jsonPath("pageable.pageSize").value(100))
-                .andExpect(jsonPath("pageable.pageNumber").value(0));
+                .andExpect(jsonPath("size").value(100))
+                .andExpect(jsonPath("number").value(0))
+                .andExpect(jsonPath("totalPages").value(1))
+                .andExpect(jsonPath("last").value(true))
+                .andExpect(jsonPath("pageable").doesNotExist())
+                .andExpect(jsonPath("sort").doesNotExist());
+
+    }
+
+    @Test
+    @DisplayName("Deve repassar o id da query string para o filtro da busca")
+    void findBooksByIdTest() throws Exception {
+        Book book = createNewBook();
+        book.setId(7L);
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 20), 1));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?id=7")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[0].id").value(7));
+
+        ArgumentCaptor<Book> filter = ArgumentCaptor.forClass(Book.class);
+        Mockito.verify(service).find(filter.capture(), Mockito.any(Pageable.class));
+        Assertions.assertThat(filter.getValue().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Deve devolver somente os campos pedidos em fields")
+    void findBooksFieldsTest() throws Exception {
+        Book book = Book.builder().id(1L).title("As Aventuras").version(0L).build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.eq(Set.of("id", "title")), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 20), 1));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?author=Emerson&fields=title, id")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[0].title").value("As Aventuras"))
+                .andExpect(jsonPath("content[0].id").value(1))
+                .andExpect(jsonPath("content[0].author").doesNotExist())
+                .andExpect(jsonPath("content[0].isbn").doesNotExist())
+                .andExpect(jsonPath("totalElements").value(1));
+
+        Mockito.verify(service, Mockito.never()).find(Mockito.any(Book.class), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request quando fields tiver um campo desconhecido")
+    void findBooksUnknownFieldTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?fields=title,version")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Campo desconhecido: version"));
+    }
+
+    @Test
+    @DisplayName("Deve paginar livros por cursor sem total")
+    void scrollBooksTest() throws Exception {
+        Book book = createNewBook();
+        String nextCursor = BookCursor.first("id").after(book).encode();
+
+        BDDMockito.given(service.scroll(Mockito.any(Book.class), Mockito.any(BookCursor.class),
+                Mockito.eq(1), Mockito.eq(false))).willReturn(new CursorPage<>(List.of(book), 1, nextCursor, null));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/scroll?size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(book.getId()))
+                .andExpect(jsonPath("nextCursor").value(nextCursor))
+                .andExpect(jsonPath("last").value(false))
+                .andExpect(jsonPath("totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request quando o cursor for inválido")
+    void scrollInvalidCursorTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/scroll?cursor=invalido"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value(BookCursor.CURSOR_INVALIDO));
+    }
+
+    @Test
+    @DisplayName("Deve criar livros em lote reportando o resultado de cada item")
+    void createBatchTest() throws Exception {
+        BookDTO valid = createNewBookDTO();
+        BookDTO invalid = BookDTO.builder().title("Sem autor").isbn("002").build();
+        BookDTO duplicated = BookDTO.builder().author("Emerson").title("Repetido").isbn("003").build();
+        Book saved = Book.builder().id(101L).author("Emerson").title("As Aventuras").isbn("001").build();
+        Book rejected = Book.builder().author("Emerson").title("Repetido").isbn("003").build();
+
+        BDDMockito.given(service.saveAll(Mockito.anyList()))
+                .willReturn(List.of(BookBatchResult.created(saved), BookBatchResult.rejected(rejected, ISBN_CADASTRADO)));
+
+        String json = new ObjectMapper().writeValueAsString(List.of(valid, invalid, duplicated));
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("[0].status").value("CREATED"))
+                .andExpect(jsonPath("[0].book.id").value(101L))
+                .andExpect(jsonPath("[1].status").value("REJECTED"))
+                .andExpect(jsonPath("[1].errors[0]").value("author: must not be empty"))
+                .andExpect(jsonPath("[2].index").value(2))
+                .andExpect(jsonPath("[2].status").value("REJECTED"))
+                .andExpect(jsonPath("[2].errors[0]").value(ISBN_CADASTRADO));
+
+        Mockito.verify(service).saveAll(Mockito.argThat(books -> books.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar no próprio item os elementos nulos do lote")
+    void createBatchNullItemTest() throws Exception {
+        Book saved = Book.builder().id(101L).author("Emerson").title("As Aventuras").isbn("001").build();
+        BDDMockito.given(service.saveAll(Mockito.anyList())).willReturn(List.of(BookBatchResult.created(saved)));
+
+        String json = "[null, " + new ObjectMapper().writeValueAsString(createNewBookDTO()) + "]";
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].status").value("REJECTED"))
+                .andExpect(jsonPath("[0].errors[0]").value(BookController.ITEM_NULO))
+                .andExpect(jsonPath("[1].status").value("CREATED"));
+
+        Mockito.verify(service).saveAll(Mockito.argThat(books -> books.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Deve obter livros por ids numa só requisição, reportando os ids inexistentes")
+    void lookupTest() throws Exception {
+        Map<Long, Book> found = new LinkedHashMap<>();
+        found.put(3L, Book.builder().id(3L).author("Emerson").title("Terceiro").isbn("003").build());
+        found.put(1L, createNewBook());
+        BDDMockito.given(service.getByIds(List.of(3L, 2L, 1L, 3L))).willReturn(found);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("[3, 2, 1, 3]");
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("books", hasSize(2)))
+                .andExpect(jsonPath("books[0].id").value(3))
+                .andExpect(jsonPath("books[1].id").value(1))
+                .andExpect(jsonPath("missing", hasSize(1)))
+                .andExpect(jsonPath("missing[0]").value(2));
+    }
+
+    @Test
+    @DisplayName("Deve recusar lookup com id nulo")
+    void lookupNullIdTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("[1, null]");
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value(BookController.ID_NULO));
 
+        Mockito.verify(service, Mockito.never()).getByIds(Mockito.anyCollection());
     }
 
     private BookDTO createNewBookDTO() {
@@ -0,0 +1,83 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.config.MapperConfig;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(BookExportController.class)
+@Import({MapperConfig.class, BookMetrics.class, SimpleMeterRegistry.class})
+@AutoConfigureMockMvc
+class BookExportControllerTest {
+
+    static String EXPORT_API = "/api/books/export";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService service;
+
+    @Test
+    @DisplayName("Deve exportar os livros em NDJSON, um por linha")
+    void exportNdjsonTest() throws Exception {
+        givenBooks();
+
+        mvc.perform(MockMvcRequestBuilders.get(EXPORT_API + "?author=Fulano"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"A\",\"author\":\"Fulano\",\"isbn\":\"1\"}\n"
+                                + "{\"id\":2,\"title\":\"B\",\"author\":\"Fulano\",\"isbn\":\"2\"}\n"));
+
+        ArgumentCaptor<Book> filter = ArgumentCaptor.forClass(Book.class);
+        Mockito.verify(service).export(filter.capture(), Mockito.any());
+        assertThat(filter.getValue().getAuthor()).isEqualTo("Fulano");
+    }
+
+    @Test
+    @DisplayName("Deve exportar os livros em CSV com cabeçalho")
+    void exportCsvTest() throws Exception {
+        givenBooks();
+
+        mvc.perform(MockMvcRequestBuilders.get(EXPORT_API + "?format=csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,title,author,isbn\n1,A,Fulano,1\n2,B,Fulano,2\n"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenBooks() {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(1);
+            consumer.accept(Book.builder().id(1L).title("A").author("Fulano").isbn("1").build());
+            consumer.accept(Book.builder().id(2L).title("B").author("Fulano").isbn("2").build());
+            return null;
+        }).given(service).export(Mockito.any(), Mockito.any(Consumer.class));
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.batch.BookImportReport;
+import io.github.emfsilva.api.library.service.BookImportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.InputStream;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(BookImportController.class)
+@Import({BookMetrics.class, SimpleMeterRegistry.class})
+@AutoConfigureMockMvc
+class BookImportControllerTest {
+
+    static String IMPORT_API = "/api/books/import";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookImportService importService;
+
+    @Test
+    @DisplayName("Deve importar livros em NDJSON e devolver o relatório")
+    void importNdjsonTest() throws Exception {
+        BookImportReport report = new BookImportReport();
+        report.setProcessed(2);
+        report.setCreated(2);
+        BDDMockito.given(importService.importNdjson(Mockito.any(InputStream.class))).willReturn(report);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(IMPORT_API)
+                .contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"A\",\"author\":\"B\",\"isbn\":\"1\"}\n{\"title\":\"C\",\"author\":\"D\",\"isbn\":\"2\"}\n");
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("processed").value(2))
+                .andExpect(jsonPath("created").value(2))
+                .andExpect(jsonPath("rejected").value(0));
+    }
+
+    @Test
+    @DisplayName("Deve importar livros em CSV")
+    void importCsvTest() throws Exception {
+        BDDMockito.given(importService.importCsv(Mockito.any(InputStream.class))).willReturn(new BookImportReport());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(IMPORT_API)
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("title,author,isbn\nA,B,1\n");
+
+        mvc.perform(request)
+                .andExpect(status().isOk());
+
+        Mockito.verify(importService).importCsv(Mockito.any(InputStream.class));
+    }
+}
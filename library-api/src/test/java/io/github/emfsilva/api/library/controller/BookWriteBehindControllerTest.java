@@ -0,0 +1,85 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.config.MapperConfig;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import io.github.emfsilva.api.library.writebehind.BookWriteBehind;
+import io.github.emfsilva.api.library.writebehind.WriteBehindQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /api/books com o write-behind ligado
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(BookController.class)
+@AutoConfigureMockMvc
+@Import({MapperConfig.class, BookMetrics.class, SimpleMeterRegistry.class})
+class BookWriteBehindControllerTest {
+
+    static String BOOK_API = "/api/books";
+    static String BOOK_JSON = "{\"title\":\"As Aventuras\",\"author\":\"Emerson\",\"isbn\":\"001\"}";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService service;
+
+    @MockBean
+    BookWriteBehind writeBehind;
+
+    @Test
+    @DisplayName("Deve aceitar o livro com 202 e o Location do id reservado")
+    void acceptedTest() throws Exception {
+        BDDMockito.given(writeBehind.accept(Mockito.any(Book.class))).willAnswer(invocation ->
+                invocation.<Book>getArgument(0).toBuilder().id(101L).version(0L).build());
+
+        mvc.perform(createRequest())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/books/101"))
+                .andExpect(jsonPath("id").value(101L))
+                .andExpect(jsonPath("isbn").value("001"));
+
+        Mockito.verify(service, Mockito.never()).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve responder 503 com Retry-After quando a fila estiver cheia")
+    void queueFullTest() throws Exception {
+        BDDMockito.given(writeBehind.accept(Mockito.any(Book.class)))
+                .willThrow(new WriteBehindQueueFullException("Fila de gravação cheia, tente novamente em instantes"));
+
+        mvc.perform(createRequest())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("errors[0]").value("Fila de gravação cheia, tente novamente em instantes"));
+    }
+
+    private MockHttpServletRequestBuilder createRequest() {
+        return MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(BOOK_JSON);
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.emfsilva.api.library.controller;
+
+import io.github.emfsilva.api.library.config.MapperConfig;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.ReactiveBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "reactive"})
+@WebFluxTest(ReactiveBookController.class)
+@Import({MapperConfig.class, BookMetrics.class, SimpleMeterRegistry.class})
+class ReactiveBookControllerTest {
+
+    static String BOOK_API = "/api/books";
+    String ISBN_CADASTRADO = "Isbn já cadastrado";
+
+    @Autowired
+    WebTestClient client;
+
+    @MockBean
+    ReactiveBookService service;
+
+    @Test
+    @DisplayName("Deve criar um livro com sucesso")
+    void createBookTest() {
+        Book savedBook = Book.builder().id(101L).author("Emerson").title("As Aventuras").isbn("001").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willReturn(Mono.just(savedBook));
+
+        client.post().uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createNewBookDTO())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("id").isEqualTo(101)
+                .jsonPath("title").isEqualTo("As Aventuras")
+                .jsonPath("isbn").isEqualTo("001");
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro de validação quando não houver dados suficientes para criação do livro")
+    void createInvalidBookTest() {
+        client.post().uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve Lançar erro ao tentar cadastrar um livro com o isbn já utilizado por outro")
+    void createBookWithDuplicatedIsbn() {
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willReturn(Mono.error(new BusinessException(ISBN_CADASTRADO)));
+
+        client.post().uri(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createNewBookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo(ISBN_CADASTRADO);
+    }
+
+    @Test
+    @DisplayName("Deve retornar resouce not found quando o livro procuarado não existir")
+    void bookNotFoundTest() {
+        BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Mono.empty());
+
+        client.get().uri(BOOK_API + "/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros com paginação")
+    void findBooksTest() {
+        Book book = Book.builder().id(1L).author("Emerson").title("As Aventuras").isbn("001").build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(Mono.just(new PageImpl<>(List.of(book), PageRequest.of(0, 100), 1)));
+
+        client.get().uri(BOOK_API + "?title=Aventuras&page=0&size=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("totalElements").isEqualTo(1)
+                .jsonPath("size").isEqualTo(100)
+                .jsonPath("number").isEqualTo(0)
+                .jsonPath("pageable").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Deve deletar um livro")
+    void deleteBookTest() {
+        Book book = Book.builder().id(1L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Mono.just(book));
+        BDDMockito.given(service.delete(book)).willReturn(Mono.empty());
+
+        client.delete().uri(BOOK_API + "/1")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        Mockito.verify(service).delete(book);
+    }
+
+    private BookDTO createNewBookDTO() {
+        return BookDTO.builder().author("Emerson").title("As Aventuras").isbn("001").build();
+    }
+}
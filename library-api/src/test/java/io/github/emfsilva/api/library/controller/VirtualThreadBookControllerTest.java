@@ -0,0 +1,149 @@
+package io.github.emfsilva.api.library.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.config.MapperConfig;
+import io.github.emfsilva.api.library.config.VirtualThreadsConfig;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.BookService;
+import io.github.emfsilva.api.library.threads.VirtualThreadErrorAdvice;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// o projeto roda em JDK 11: o executor das virtual threads é trocado por um pool comum,
+// o caminho do adapter (dispatch ASYNC e tratamento de erros) é o mesmo
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(value = BookController.class, properties = "library.threads.virtual=true")
+@AutoConfigureMockMvc
+@Import({MapperConfig.class, BookMetrics.class, SimpleMeterRegistry.class, VirtualThreadsConfig.class,
+        VirtualThreadErrorAdvice.class, VirtualThreadBookControllerTest.PlatformExecutorConfig.class})
+class VirtualThreadBookControllerTest {
+
+    static final String BOOK_API = "/api/books";
+    static final String THREAD_PREFIX = "mvc-platform-";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService service;
+
+    @TestConfiguration
+    static class PlatformExecutorConfig {
+
+        @Bean(name = VirtualThreadsConfig.EXECUTOR, destroyMethod = "shutdown")
+        ExecutorService mvcHandlerExecutor() {
+            return Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, THREAD_PREFIX + runnable.hashCode()));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve executar o método do controller no executor e responder no dispatch assíncrono")
+    void asyncDispatchTest() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        BDDMockito.given(service.getById(1L)).willAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return Optional.of(Book.builder().id(1L).title("As Aventuras").author("Fulano").isbn("001").build());
+        });
+
+        MvcResult started = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        dispatch(started)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(1L))
+                .andExpect(jsonPath("isbn").value("001"));
+        Assertions.assertThat(thread.get()).startsWith(THREAD_PREFIX);
+    }
+
+    @Test
+    @DisplayName("Deve responder 404 com o corpo do BasicErrorController quando o livro não existir")
+    void notFoundTest() throws Exception {
+        BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+
+        MvcResult started = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        dispatch(started)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("status").value(404))
+                .andExpect(jsonPath("path").value(BOOK_API.concat("/1")));
+    }
+
+    @Test
+    @DisplayName("Deve mapear a BusinessException lançada no executor como no modo síncrono")
+    void businessErrorTest() throws Exception {
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willThrow(new BusinessException("Isbn já cadastrado"));
+
+        MvcResult started = mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(createBookDTO())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        dispatch(started)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("Isbn já cadastrado"));
+    }
+
+    @Test
+    @DisplayName("Deve validar o corpo na thread da requisição, sem passar pelo executor")
+    void validationTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(new BookDTO())))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", hasSize(3)));
+        Mockito.verifyNoInteractions(service);
+    }
+
+    // com request-timeout 0 o MockMvc não espera o executor: aguarda o resultado antes do dispatch
+    private ResultActions dispatch(MvcResult started) throws Exception {
+        started.getAsyncResult(5_000);
+        return mvc.perform(MockMvcRequestBuilders.asyncDispatch(started));
+    }
+
+    private BookDTO createBookDTO() {
+        return BookDTO.builder().author("Fulano").title("As Aventuras").isbn("001").build();
+    }
+}
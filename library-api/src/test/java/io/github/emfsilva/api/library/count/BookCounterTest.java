@@ -0,0 +1,199 @@
+package io.github.emfsilva.api.library.count;
+
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.CountedPage;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// o count roda nas threads do BookCounter, fora da transação do teste: os livros são
+// gravados de verdade e cada teste limpa a tabela
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookCounterTest {
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    JdbcTemplate jdbc;
+    SimpleMeterRegistry registry;
+    BookRepository countingRepository;
+    volatile CountDownLatch release;
+    BookCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("delete from book");
+        registry = new SimpleMeterRegistry();
+        release = new CountDownLatch(0);
+        // o count só termina depois do release: é assim que o teste deixa o count lento
+        countingRepository = Mockito.mock(BookRepository.class, AdditionalAnswers.delegatesTo(repository));
+        Mockito.doAnswer(invocation -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // shutdown do counter no fim do teste
+                return 0L;
+            }
+            return repository.countMatching(invocation.getArgument(0));
+        }).when(countingRepository).countMatching(Mockito.any(Book.class));
+        counter = new BookCounter(countingRepository, jdbc, transactionManager, registry, 2, 10,
+                Duration.ofMinutes(1), Duration.ofSeconds(2), 100);
+        for (int i = 0; i < 25; i++) {
+            repository.save(Book.builder().title("Livro " + i).author(i % 2 == 0 ? "Fulano" : "Ciclano")
+                    .isbn("isbn-" + i).build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        counter.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve contar em paralelo e guardar o total exato do filtro, ignorando a caixa")
+    void countAndCacheTest() {
+        Page<Book> first = page(Book.builder().author("Fulano").build(), PageRequest.of(0, 5));
+        Page<Book> second = page(Book.builder().author("FULANO").build(), PageRequest.of(1, 5));
+
+        Assertions.assertThat(first.getTotalElements()).isEqualTo(13);
+        Assertions.assertThat(CountedPage.isTotalExact(first)).isTrue();
+        Assertions.assertThat(second.getTotalElements()).isEqualTo(13);
+        Mockito.verify(countingRepository, Mockito.times(1)).countMatching(Mockito.any(Book.class));
+        Assertions.assertThat(outcome("counted")).isEqualTo(1);
+        Assertions.assertThat(outcome("cached")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve guardar contagens separadas para filtros que só diferem no id")
+    void countByIdTest() {
+        Long id = repository.findAll().get(0).getId();
+
+        Page<Book> all = page(new Book(), PageRequest.of(0, 1));
+        Page<Book> byId = page(Book.builder().id(id).build(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(all.getTotalElements()).isEqualTo(25);
+        Assertions.assertThat(byId.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve tirar o total do conteúdo numa página incompleta, sem esperar o count")
+    void totalFromContentTest() {
+        release = new CountDownLatch(1);
+
+        Page<Book> last = page(Book.builder().author("ciclano").build(), PageRequest.of(1, 10));
+
+        Assertions.assertThat(last.getTotalElements()).isEqualTo(12);
+        Assertions.assertThat(CountedPage.isTotalExact(last)).isTrue();
+        Assertions.assertThat(outcome("content")).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Deve estimar o total quando o count não terminar a tempo e usar o count nas próximas")
+    void estimateTest() throws Exception {
+        counter.shutdown();
+        counter = new BookCounter(countingRepository, jdbc, transactionManager, registry, 2, 10,
+                Duration.ofMinutes(1), Duration.ofMillis(20), 100);
+        release = new CountDownLatch(1);
+
+        Page<Book> estimated = page(new Book(), PageRequest.of(0, 10));
+
+        // sem filtro, pela estatística da tabela (no mínimo a página cheia e mais um)
+        Assertions.assertThat(CountedPage.isTotalExact(estimated)).isFalse();
+        Assertions.assertThat(estimated.getTotalElements()).isGreaterThanOrEqualTo(11);
+        Assertions.assertThat(outcome("estimated")).isEqualTo(1);
+
+        release.countDown();
+        awaitCounted(new Book());
+
+        Page<Book> exact = page(new Book(), PageRequest.of(0, 10));
+        Assertions.assertThat(CountedPage.isTotalExact(exact)).isTrue();
+        Assertions.assertThat(exact.getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("Deve estimar pela última contagem do filtro depois que um livro mudar")
+    void estimateFromLastCountTest() throws Exception {
+        counter.shutdown();
+        counter = new BookCounter(countingRepository, jdbc, transactionManager, registry, 2, 10,
+                Duration.ofMinutes(1), Duration.ofMillis(20), 100);
+        Book filter = Book.builder().author("fulano").build();
+        awaitCounted(filter);
+        release = new CountDownLatch(1);
+
+        counter.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, new Book()));
+        Page<Book> estimated = page(filter, PageRequest.of(0, 5));
+
+        Assertions.assertThat(CountedPage.isTotalExact(estimated)).isFalse();
+        Assertions.assertThat(estimated.getTotalElements()).isEqualTo(13);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Deve ler a estimativa de linhas das estatísticas do H2")
+    void tableRowsTest() {
+        Long rows = jdbc.queryForObject(BookCounter.TABLE_ROWS, Long.class);
+
+        Assertions.assertThat(rows).isNotNull().isNotNegative();
+    }
+
+    private Page<Book> page(Book filter, Pageable pageable) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(tx -> counter.page(filter, pageable, () -> repository.findMatchingContent(filter, pageable)));
+    }
+
+    // a primeira página cheia espera o count em segundo plano até ele entrar no cache
+    private void awaitCounted(Book filter) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (CountedPage.isTotalExact(page(filter, PageRequest.of(0, 5)))) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("count não terminou");
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("library.book.count").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import io.github.emfsilva.api.library.cache.BookCache;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.github.emfsilva.api.library.service.event.BookInvalidatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// dois nós no mesmo processo, cada um com o seu BookCache, ligados pelo loopback
+class BookInvalidationBusTest {
+
+    BookCache cacheA;
+    BookCache cacheB;
+    List<Object> eventsA;
+    SimpleMeterRegistry registryA;
+    SimpleMeterRegistry registryB;
+    BookInvalidationBus busA;
+    BookInvalidationBus busB;
+
+    @BeforeEach
+    void setUp() {
+        cacheA = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        cacheB = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        eventsA = new ArrayList<>();
+        registryA = new SimpleMeterRegistry();
+        registryB = new SimpleMeterRegistry();
+        LoopbackInvalidationTransport transportA = new LoopbackInvalidationTransport();
+        busA = new BookInvalidationBus(transportA, eventsA::add, registryA);
+        busB = new BookInvalidationBus(transportA.join(),
+                event -> cacheB.onBookInvalidated((BookInvalidatedEvent) event), registryB);
+        busA.start();
+        busB.start();
+    }
+
+    @Test
+    @DisplayName("Deve remover o livro alterado num nó do cache do outro nó")
+    void invalidatePeerTest() {
+        cacheA.get(1L, id -> Optional.of(createBook(id, "Antigo")));
+        cacheB.get(1L, id -> Optional.of(createBook(id, "Antigo")));
+
+        Book updated = createBook(1L, "Novo");
+        cacheA.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+        busA.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+
+        Assertions.assertThat(cacheB.get(1L, id -> Optional.of(createBook(id, "Novo"))).get().getTitle())
+                .isEqualTo("Novo");
+        Assertions.assertThat(registryA.get("library.book.invalidation").tag("direction", "sent").counter().count())
+                .isEqualTo(1);
+        Assertions.assertThat(registryB.get("library.book.invalidation").tag("direction", "received").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve republicar no próprio nó a invalidação que ele enviou")
+    void ignoreOwnMessagesTest() {
+        busA.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, createBook(1L, "Removido")));
+
+        Assertions.assertThat(eventsA).isEmpty();
+        Assertions.assertThat(registryA.get("library.book.invalidation").tag("direction", "received").counter().count())
+                .isZero();
+    }
+
+    private static Book createBook(Long id, String title) {
+        return Book.builder().id(id).title(title).author("Fulano").isbn("123").build();
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.emfsilva.api.library.invalidation;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class UdpInvalidationTransportTest {
+
+    DatagramChannel peer;
+    UdpInvalidationTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        peer = DatagramChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        transport = new UdpInvalidationTransport(new InetSocketAddress("127.0.0.1", 0),
+                List.of((InetSocketAddress) peer.getLocalAddress()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transport.close();
+        peer.close();
+    }
+
+    @Test
+    @DisplayName("Deve enviar a invalidação como datagrama para cada peer")
+    void sendTest() throws Exception {
+        transport.send(new BookInvalidation(7L, 42L));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        peer.receive(buffer);
+        BookInvalidation received = BookInvalidation.decode(buffer.flip());
+
+        Assertions.assertThat(received).isNotNull();
+        Assertions.assertThat(received.getNode()).isEqualTo(7L);
+        Assertions.assertThat(received.getBookId()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("Deve entregar as invalidações recebidas e ignorar datagramas de outro formato")
+    void receiveTest() throws Exception {
+        BlockingQueue<BookInvalidation> received = new LinkedBlockingQueue<>();
+        transport.start(received::add);
+
+        peer.send(ByteBuffer.wrap("lixo".getBytes()), transport.getLocalAddress());
+        peer.send(new BookInvalidation(3L, 99L).encode(), transport.getLocalAddress());
+
+        BookInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+        Assertions.assertThat(invalidation).isNotNull();
+        Assertions.assertThat(invalidation.getBookId()).isEqualTo(99L);
+        Assertions.assertThat(received).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve entregar no start as invalidações que chegaram antes dele")
+    void receiveBeforeStartTest() throws Exception {
+        peer.send(new BookInvalidation(3L, 98L).encode(), transport.getLocalAddress());
+
+        BlockingQueue<BookInvalidation> received = new LinkedBlockingQueue<>();
+        transport.start(received::add);
+
+        BookInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+        Assertions.assertThat(invalidation).isNotNull();
+        Assertions.assertThat(invalidation.getBookId()).isEqualTo(98L);
+    }
+
+    @Test
+    @DisplayName("Deve ler os peers no formato host:porta")
+    void addressesTest() {
+        List<InetSocketAddress> addresses = UdpInvalidationTransport.addresses(List.of("localhost:9111", " ", "127.0.0.1:9112"));
+
+        Assertions.assertThat(addresses).extracting(InetSocketAddress::getPort).containsExactly(9111, 9112);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.emfsilva.api.library.isbn;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IsbnBloomFilterTest {
+
+    @Test
+    @DisplayName("Deve reconhecer todos os isbns inseridos")
+    void noFalseNegativesTest() {
+        IsbnBloomFilter filter = new IsbnBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("isbn-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertThat(filter.mightContain("isbn-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter a taxa de falso positivo próxima da configurada")
+    void falsePositiveRateTest() {
+        IsbnBloomFilter filter = new IsbnBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("isbn-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("outro-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.emfsilva.api.library.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.pagination.CountedPage;
+import io.github.emfsilva.api.library.model.pagination.PageResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class BookJsonModuleTest {
+
+    ObjectMapper reflective = new ObjectMapper();
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new BookJsonModule());
+
+    @Test
+    @DisplayName("Deve escrever o livro igual ao serializador reflexivo, inclusive com campos nulos")
+    void bookTest() throws Exception {
+        BookDTO book = BookDTO.builder().id(1L).title("As \"Aventuras\"").author("Emerson").isbn("001").build();
+        BookDTO partial = BookDTO.builder().title("Sem id").build();
+
+        Assertions.assertThat(objectMapper.writeValueAsString(book)).isEqualTo(reflective.writeValueAsString(book));
+        Assertions.assertThat(objectMapper.writeValueAsString(partial))
+                .isEqualTo(reflective.writeValueAsString(partial));
+    }
+
+    @Test
+    @DisplayName("Deve escrever a página com os campos de topo do PageImpl e o totalExact, sem pageable e sort")
+    void pageTest() throws Exception {
+        List<BookDTO> content = List.of(BookDTO.builder().id(1L).title("A").author("B").isbn("1").build());
+        PageImpl<BookDTO> page = new PageImpl<>(content, PageRequest.of(2, 1), 5);
+
+        JsonNode written = objectMapper.readTree(objectMapper.writeValueAsBytes(PageResponse.of(content, page)));
+        JsonNode expected = reflective.readTree(reflective.writeValueAsBytes(page));
+
+        for (String field : List.of("content", "number", "size", "numberOfElements", "totalElements", "totalPages",
+                "first", "last", "empty")) {
+            Assertions.assertThat(written.get(field)).as(field).isEqualTo(expected.get(field));
+        }
+        Assertions.assertThat(written.has("pageable")).isFalse();
+        Assertions.assertThat(written.has("sort")).isFalse();
+        Assertions.assertThat(written.get("totalExact").booleanValue()).isTrue();
+        Assertions.assertThat(written.size()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Deve marcar o total estimado com totalExact false")
+    void approximateTotalTest() throws Exception {
+        List<BookDTO> content = List.of(BookDTO.builder().id(1L).title("A").author("B").isbn("1").build());
+        CountedPage<BookDTO> page = new CountedPage<>(content, PageRequest.of(0, 1), 1000, false);
+
+        JsonNode written = objectMapper.readTree(objectMapper.writeValueAsBytes(PageResponse.of(content, page)));
+
+        Assertions.assertThat(written.get("totalElements").longValue()).isEqualTo(1000);
+        Assertions.assertThat(written.get("totalExact").booleanValue()).isFalse();
+        Assertions.assertThat(written.get("totalPages").intValue()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Deve escrever as linhas projetadas pelo serializador padrão")
+    void projectedPageTest() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("title", "A");
+
+        String json = objectMapper.writeValueAsString(new PageResponse<>(List.of(row), 0, 20, 1));
+
+        Assertions.assertThat(json).startsWith("{\"content\":[{\"id\":1,\"title\":\"A\"}],\"number\":0");
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.emfsilva.api.library.mapper;
+
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import io.github.emfsilva.api.library.model.entity.Book;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.util.List;
+
+class BookMapperTest {
+
+    BookMapper mapper = new DirectBookMapper();
+    BookMapper legacyMapper = new ModelMapperBookMapper(new ModelMapper());
+
+    @Test
+    @DisplayName("Deve converter um livro para DTO igual ao ModelMapper")
+    void toDtoTest() {
+        Book book = Book.builder().id(1L).author("Fulano").title("As Aventuras").isbn("123").build();
+
+        BookDTO dto = mapper.toDto(book);
+
+        Assertions.assertThat(dto).isEqualTo(legacyMapper.toDto(book));
+        Assertions.assertThat(dto.getId()).isEqualTo(1L);
+        Assertions.assertThat(dto.getTitle()).isEqualTo("As Aventuras");
+        Assertions.assertThat(dto.getAuthor()).isEqualTo("Fulano");
+        Assertions.assertThat(dto.getIsbn()).isEqualTo("123");
+    }
+
+    @Test
+    @DisplayName("Deve converter um DTO para livro igual ao ModelMapper")
+    void toEntityTest() {
+        BookDTO dto = BookDTO.builder().author("Fulano").title("As Aventuras").isbn("123").build();
+
+        Book book = mapper.toEntity(dto);
+
+        Assertions.assertThat(book).isEqualTo(legacyMapper.toEntity(dto));
+        Assertions.assertThat(book.getId()).isNull();
+        Assertions.assertThat(book.getTitle()).isEqualTo("As Aventuras");
+    }
+
+    @Test
+    @DisplayName("Deve converter uma lista de livros mantendo a ordem")
+    void toDtoListTest() {
+        Book first = Book.builder().id(1L).title("A").build();
+        Book second = Book.builder().id(2L).title("B").build();
+
+        List<BookDTO> list = mapper.toDtoList(List.of(first, second));
+
+        Assertions.assertThat(list).extracting(BookDTO::getId).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.emfsilva.api.library.migration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class SchemaMigratorTest {
+
+    EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    JdbcTemplate jdbc = new JdbcTemplate(database);
+
+    SchemaMigrator migrator = new SchemaMigrator(database, new PathMatchingResourcePatternResolver());
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve aplicar as migrações em ordem uma única vez")
+    void migrateTest() {
+        migrator.migrate();
+        migrator.migrate();
+
+        List<Integer> versions = jdbc.queryForList("select version from schema_version order by version", Integer.class);
+        Assertions.assertThat(versions).containsExactly(1, 2, 3);
+        Assertions.assertThat(jdbc.queryForObject("select count(*) from book", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve impedir a subida quando um script já aplicado for alterado")
+    void changedMigrationTest() {
+        migrator.migrate();
+        jdbc.update("update schema_version set checksum = checksum + 1 where version = 1");
+
+        Assertions.assertThatThrownBy(migrator::migrate)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("V1");
+    }
+
+    @Test
+    @DisplayName("Deve aplicar cada migração uma vez quando duas instâncias sobem juntas")
+    void concurrentMigrateTest() throws Exception {
+        SchemaMigrator other = new SchemaMigrator(database, new PathMatchingResourcePatternResolver());
+        CountDownLatch start = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> awaitAndMigrate(start, migrator));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> awaitAndMigrate(start, other));
+        start.countDown();
+
+        CompletableFuture.allOf(first, second).get(30, TimeUnit.SECONDS);
+        List<Integer> versions = jdbc.queryForList("select version from schema_version order by version", Integer.class);
+        Assertions.assertThat(versions).containsExactly(1, 2, 3);
+    }
+
+    private static void awaitAndMigrate(CountDownLatch start, SchemaMigrator migrator) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        migrator.migrate();
+    }
+}
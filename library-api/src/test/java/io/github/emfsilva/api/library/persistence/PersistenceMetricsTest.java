@@ -0,0 +1,51 @@
+package io.github.emfsilva.api.library.persistence;
+
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(SchemaMigrationConfig.class)
+class PersistenceMetricsTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    BookRepository repository;
+
+    @Test
+    @DisplayName("Deve medir os acertos do cache de planos nas consultas repetidas do repositório")
+    void queryPlanCacheTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new PersistenceMetrics(entityManagerFactory).bindTo(registry);
+        Book filter = Book.builder().author("Fulano").build();
+        repository.findMatchingContent(filter, PageRequest.of(0, 10));
+        double hits = planCache(registry, "hit");
+
+        repository.findMatchingContent(filter, PageRequest.of(1, 10));
+        repository.findMatchingContent(Book.builder().author("Ciclano").build(), PageRequest.of(0, 10));
+
+        // mesmo criteria com outro valor ou outra página: o plano já compilado é reaproveitado
+        Assertions.assertThat(planCache(registry, "hit")).isGreaterThanOrEqualTo(hits + 2);
+    }
+
+    private double planCache(SimpleMeterRegistry registry, String result) {
+        return registry.get("library.persistence.query.plan.cache").tag("result", result).functionCounter().count();
+    }
+}
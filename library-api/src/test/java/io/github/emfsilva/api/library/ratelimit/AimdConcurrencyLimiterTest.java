@@ -0,0 +1,66 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AimdConcurrencyLimiterTest {
+
+    static long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    static long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    static long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    @DisplayName("Deve recusar acima do limite e liberar a vaga no release")
+    void acquireTest() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5);
+
+        Assertions.assertThat(limiter.tryAcquire()).isTrue();
+        Assertions.assertThat(limiter.tryAcquire()).isTrue();
+        Assertions.assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST, false, 0);
+
+        Assertions.assertThat(limiter.getInFlight()).isEqualTo(1);
+        Assertions.assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve crescer o limite com respostas rápidas sob carga")
+    void additiveIncreaseTest() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 10, THRESHOLD, 0.5);
+
+        for (int i = 0; i < 40; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false, i);
+            limiter.release(FAST, false, i);
+        }
+
+        Assertions.assertThat(limiter.getLimit()).isGreaterThan(4).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Deve reduzir o limite uma vez por intervalo quando a latência passar do alvo")
+    void multiplicativeDecreaseTest() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 2, 10, THRESHOLD, 0.5);
+        long now = 1_000_000_000L;
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(SLOW, false, now);
+        limiter.release(SLOW, false, now + 1);
+        limiter.release(FAST, true, now + 2);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(4);
+
+        limiter.release(SLOW, false, now + THRESHOLD);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(2);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false, now + 3 * THRESHOLD);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.emfsilva.api.library.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.List;
+
+class RateLimitFilterTest {
+
+    static final String PROXY = "10.0.0.1";
+
+    SimpleMeterRegistry registry;
+    RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // taxas baixas: nenhum token volta durante o teste
+        filter = createFilter(2, 10);
+    }
+
+    @Test
+    @DisplayName("Deve responder 429 com Retry-After quando o cliente esgotar o orçamento do find")
+    void throttleFindTest() throws Exception {
+        Assertions.assertThat(perform("GET", "/api/books", "a").getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("GET", "/api/books", "a").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse response = perform("GET", "/api/books", "a");
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(429);
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        Assertions.assertThat(response.getContentAsString()).contains(RateLimitFilter.LIMITE_EXCEDIDO);
+        Assertions.assertThat(counter("find", "admitted")).isEqualTo(2);
+        Assertions.assertThat(counter("find", "throttled")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve manter orçamentos separados por cliente e para o GET por id")
+    void separateBudgetsTest() throws Exception {
+        perform("GET", "/api/books", "a");
+        perform("GET", "/api/books", "a");
+
+        Assertions.assertThat(perform("GET", "/api/books/1", "a").getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("GET", "/api/books", "b").getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("GET", "/api/books", "a").getStatus()).isEqualTo(429);
+        Assertions.assertThat(counter("by-id", "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve cobrar mais tokens por uma página profunda")
+    void deepOffsetCostTest() throws Exception {
+        MockHttpServletRequest deep = request("GET", "/api/books", "a");
+        deep.setParameter("page", "50");
+        deep.setParameter("size", "20");
+
+        Assertions.assertThat(perform(deep).getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("GET", "/api/books", "a").getStatus()).isEqualTo(429);
+        Assertions.assertThat(perform("GET", "/api/books", "b").getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform("GET", "/api/books", "b").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Deve descartar com 503 quando o limite de concorrência estiver ocupado")
+    void shedTest() throws Exception {
+        filter = createFilter(100, 100);
+        // a requisição que segura a única vaga fica em async até o fim do teste
+        MockHttpServletRequest slow = request("GET", "/api/books", "a");
+        slow.setAsyncSupported(true);
+        filter.doFilter(slow, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse res) {
+                        req.startAsync();
+                    }
+                }));
+
+        MockHttpServletResponse response = perform("GET", "/api/books", "b");
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(503);
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        Assertions.assertThat(registry.get("library.rate.limit.requests").tag("outcome", "shed").counter().count())
+                .isEqualTo(1);
+
+        slow.getAsyncContext().complete();
+        Assertions.assertThat(perform("GET", "/api/books", "b").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Não deve limitar rotas fora de /api/books")
+    void otherPathsTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertThat(perform("GET", "/actuator/health", "a").getStatus()).isEqualTo(200);
+            Assertions.assertThat(perform("GET", "/api/booksXYZ", "a").getStatus()).isEqualTo(200);
+        }
+        Assertions.assertThat(perform("GET", "/api/books/", "a").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar o header de cliente quando a conexão não vier de um proxy confiável")
+    void untrustedClientHeaderTest() throws Exception {
+        Assertions.assertThat(perform(request("192.168.0.9", "x1")).getStatus()).isEqualTo(200);
+        Assertions.assertThat(perform(request("192.168.0.9", "x2")).getStatus()).isEqualTo(200);
+
+        Assertions.assertThat(perform(request("192.168.0.9", "x3")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Deve separar os clientes pelo header atrás de um proxy confiável")
+    void trustedProxyClientHeaderTest() throws Exception {
+        perform(request(PROXY, "a"));
+        perform(request(PROXY, "a"));
+
+        Assertions.assertThat(perform(request(PROXY, "a")).getStatus()).isEqualTo(429);
+        Assertions.assertThat(perform(request(PROXY, "b")).getStatus()).isEqualTo(200);
+    }
+
+    private RateLimitFilter createFilter(int findBurst, int byIdBurst) {
+        return new RateLimitFilter(new ObjectMapper(), registry, "X-Client-Id", List.of(PROXY), 1000,
+                0.001, byIdBurst, 0.001, findBurst, 1000,
+                1, 1, 1, Duration.ofSeconds(10), 0.9);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String client) throws Exception {
+        return perform(request(method, uri, client));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    // cada cliente com o seu endereço de origem
+    private MockHttpServletRequest request(String method, String uri, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("192.168.0." + (int) client.charAt(0));
+        return request;
+    }
+
+    private MockHttpServletRequest request(String remoteAddr, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+
+    private double counter(String budget, String outcome) {
+        return registry.get("library.rate.limit.requests").tag("budget", budget).tag("outcome", outcome)
+                .counter().count();
+    }
+}
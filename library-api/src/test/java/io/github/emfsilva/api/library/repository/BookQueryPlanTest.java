@@ -0,0 +1,87 @@
+package io.github.emfsilva.api.library.repository;
+
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.Query;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// plano do H2 (EXPLAIN) para o sql que o Hibernate gera nas consultas quentes,
+// conferindo que elas usam os índices das migrações
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.emfsilva.api.library.repository.BookQueryPlanTest$RecordingInspector")
+@Import(SchemaMigrationConfig.class)
+class BookQueryPlanTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    BookRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        RecordingInspector.statements.clear();
+    }
+
+    @Test
+    @DisplayName("Deve buscar o isbn pelo índice único")
+    void isbnLookupPlanTest() {
+        repository.existsByIsbn("123");
+        Assertions.assertThat(explainLast()).contains("UK_BOOK_ISBN");
+
+        repository.findExistingIsbns(List.of("123", "456"));
+        Assertions.assertThat(explainLast()).contains("UK_BOOK_ISBN");
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor de título e de autor pelos índices compostos")
+    void keysetPlanTest() {
+        Book last = Book.builder().id(10L).title("As Aventuras").author("Emerson").build();
+
+        repository.findAfter(null, BookCursor.first("title").after(last), 20);
+        Assertions.assertThat(explainLast()).contains("IX_BOOK_TITLE_ID");
+
+        repository.findAfter(null, BookCursor.first("author").after(last), 20);
+        Assertions.assertThat(explainLast()).contains("IX_BOOK_AUTHOR_ID");
+    }
+
+    private String explainLast() {
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        Query explain = entityManager.getEntityManager().createNativeQuery("explain " + sql);
+        long parameters = sql.chars().filter(c -> c == '?').count();
+        for (int i = 1; i <= parameters; i++) {
+            explain.setParameter(i, "1");
+        }
+        return explain.getSingleResult().toString();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (!sql.startsWith("explain")) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
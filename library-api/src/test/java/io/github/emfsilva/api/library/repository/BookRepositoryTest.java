@@ -1,21 +1,36 @@
 package io.github.emfsilva.api.library.repository;
 
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @DataJpaTest
+@Import(SchemaMigrationConfig.class)
 class BookRepositoryTest {
 
     @Autowired
@@ -94,6 +109,246 @@ class BookRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Deve paginar por cursor usando o id")
+    void findAfterIdTest() {
+        Book first = entityManager.persist(Book.builder().author("Emerson").title("As Aventuras").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().author("Emerson").title("As Aventuras").isbn("2").build());
+        Book third = entityManager.persist(Book.builder().author("Emerson").title("As Aventuras").isbn("3").build());
+
+        BookCursor cursor = BookCursor.first("id");
+        List<Book> firstPage = repository.findAfter(new Book(), cursor, 2);
+        List<Book> secondPage = repository.findAfter(new Book(), cursor.after(firstPage.get(1)), 2);
+
+        Assertions.assertThat(firstPage).containsExactly(first, second);
+        Assertions.assertThat(secondPage).containsExactly(third);
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor usando o título e o id como desempate, respeitando o filtro")
+    void findAfterTitleTest() {
+        Book b = entityManager.persist(Book.builder().author("Emerson").title("B").isbn("1").build());
+        Book a1 = entityManager.persist(Book.builder().author("Emerson").title("A").isbn("2").build());
+        Book a2 = entityManager.persist(Book.builder().author("Emerson").title("A").isbn("3").build());
+        entityManager.persist(Book.builder().author("Outro").title("A").isbn("4").build());
+
+        Book filter = Book.builder().author("emer").build();
+        BookCursor cursor = BookCursor.first("title");
+        List<Book> firstPage = repository.findAfter(filter, cursor, 1);
+        List<Book> secondPage = repository.findAfter(filter, cursor.after(firstPage.get(0)), 5);
+
+        Assertions.assertThat(firstPage).containsExactly(a1);
+        Assertions.assertThat(secondPage).containsExactly(a2, b);
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor passando por livros com título nulo, nas duas direções")
+    void findAfterNullTitleTest() {
+        Book nullFirst = entityManager.persist(Book.builder().author("Emerson").isbn("1").build());
+        Book a = entityManager.persist(Book.builder().author("Emerson").title("A").isbn("2").build());
+        Book nullSecond = entityManager.persist(Book.builder().author("Emerson").isbn("3").build());
+        Book b = entityManager.persist(Book.builder().author("Emerson").title("B").isbn("4").build());
+
+        for (int pageSize = 1; pageSize <= 3; pageSize++) {
+            Assertions.assertThat(scroll(BookCursor.first("title"), pageSize))
+                    .containsExactly(nullFirst, nullSecond, a, b);
+            Assertions.assertThat(scroll(BookCursor.first("title,desc"), pageSize))
+                    .containsExactly(b, a, nullSecond, nullFirst);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor filtrando pelo id, com o mesmo filtro do count")
+    void findAfterByIdTest() {
+        entityManager.persist(Book.builder().author("Emerson").title("A").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().author("Emerson").title("B").isbn("2").build());
+
+        Book filter = Book.builder().id(second.getId()).build();
+        List<Book> page = repository.findAfter(filter, BookCursor.first("title"), 10);
+
+        Assertions.assertThat(page).containsExactly(second);
+        Assertions.assertThat(repository.countMatching(filter)).isEqualTo(page.size());
+    }
+
+    // segue os cursores até a página vir vazia, como um cliente do /scroll
+    private List<Book> scroll(BookCursor cursor, int pageSize) {
+        List<Book> books = new ArrayList<>();
+        List<Book> page = repository.findAfter(null, cursor, pageSize);
+        while (!page.isEmpty()) {
+            books.addAll(page);
+            cursor = BookCursor.decode(cursor.after(page.get(page.size() - 1)).encode());
+            page = repository.findAfter(null, cursor, pageSize);
+        }
+        return books;
+    }
+
+    @Test
+    @DisplayName("Deve barrar no banco um segundo livro com o mesmo isbn")
+    void uniqueIsbnTest() {
+        entityManager.persist(createNewBook());
+
+        Throwable exception = Assertions.catchThrowable(() -> repository.saveAndFlush(createNewBook()));
+
+        Assertions.assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+        Assertions.assertThat(exception.getCause()).isInstanceOf(org.hibernate.exception.ConstraintViolationException.class);
+        Assertions.assertThat(((org.hibernate.exception.ConstraintViolationException) exception.getCause()).getConstraintName())
+                .containsIgnoringCase(Book.UK_ISBN);
+    }
+
+    @Test
+    @DisplayName("Deve listar todos os isbns cadastrados")
+    void streamAllIsbnsTest() {
+        entityManager.persist(createNewBook());
+        entityManager.persist(Book.builder().author("Emerson").title("Outro").isbn("456").build());
+
+        try (Stream<String> isbns = repository.streamAllIsbns()) {
+            Assertions.assertThat(isbns.collect(Collectors.toList())).containsExactlyInAnyOrder("123", "456");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve retornar somente os isbns já cadastrados")
+    void findExistingIsbnsTest() {
+        entityManager.persist(createNewBook());
+
+        List<String> existing = repository.findExistingIsbns(List.of("123", "456"));
+
+        Assertions.assertThat(existing).containsExactly("123");
+    }
+
+    @Test
+    @DisplayName("Deve percorrer em stream os livros do filtro, em ordem de id e fora do persistence context")
+    void streamMatchingTest() {
+        Book first = entityManager.persist(Book.builder().author("Emerson").title("A").isbn("1").build());
+        entityManager.persist(Book.builder().author("Outro").title("B").isbn("2").build());
+        Book third = entityManager.persist(Book.builder().author("Emerson").title("C").isbn("3").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        try (Stream<Book> books = repository.streamMatching(Book.builder().author("emer").build(), 10)) {
+            List<Book> result = books.collect(Collectors.toList());
+
+            Assertions.assertThat(result).extracting(Book::getId).containsExactly(first.getId(), third.getId());
+            Assertions.assertThat(result).noneMatch(book -> entityManager.getEntityManager().contains(book));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar em stream somente o livro filtrado pelo id")
+    void streamMatchingByIdTest() {
+        entityManager.persist(Book.builder().author("Emerson").title("A").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().author("Emerson").title("B").isbn("2").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        try (Stream<Book> books = repository.streamMatching(Book.builder().id(second.getId()).build(), 10)) {
+            Assertions.assertThat(books.map(Book::getIsbn).collect(Collectors.toList())).containsExactly("2");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve paginar o filtro fora do persistence context, ordenando e contando")
+    void findMatchingTest() {
+        entityManager.persist(Book.builder().author("Emerson").title("B").isbn("1").build());
+        entityManager.persist(Book.builder().author("Outro").title("C").isbn("2").build());
+        entityManager.persist(Book.builder().author("Emerson").title("A").isbn("3").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Book> page = repository.findMatching(Book.builder().author("EMER").build(),
+                PageRequest.of(0, 1, Sort.by("title")));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(page.getContent()).extracting(Book::getIsbn).containsExactly("3");
+        Assertions.assertThat(entityManager.getEntityManager().contains(page.getContent().get(0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pelo id junto com os demais campos")
+    void findMatchingByIdTest() {
+        Book first = entityManager.persist(Book.builder().author("Emerson").title("A").isbn("1").build());
+        entityManager.persist(Book.builder().author("Emerson").title("B").isbn("2").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Book> byId = repository.findMatching(Book.builder().id(first.getId()).build(), PageRequest.of(0, 10));
+        Page<Book> byIdAndAuthor = repository.findMatching(Book.builder().id(first.getId()).author("outro").build(),
+                PageRequest.of(0, 10));
+
+        Assertions.assertThat(byId.getContent()).extracting(Book::getIsbn).containsExactly("1");
+        Assertions.assertThat(byId.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(byIdAndAuthor.getContent()).isEmpty();
+        Assertions.assertThat(repository.countMatching(Book.builder().id(first.getId()).build())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve carregar as listagens por cursor e por ids como read-only mesmo numa transação de escrita")
+    void readOnlyListsTest() {
+        Book saved = entityManager.persistFlushFind(createNewBook());
+        entityManager.clear();
+
+        Book byCursor = repository.findAfter(null, BookCursor.first("id"), 10).get(0);
+        Book byIds = repository.findAllById(List.of(saved.getId())).get(0);
+
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        Assertions.assertThat(session.isReadOnly(byCursor)).isTrue();
+        Assertions.assertThat(session.isReadOnly(byIds)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve buscar somente os campos pedidos, paginando e sem entidades gerenciadas")
+    void findFieldsTest() {
+        entityManager.persist(Book.builder().author("Emerson").title("B").isbn("1").build());
+        entityManager.persist(Book.builder().author("Outro").title("C").isbn("2").build());
+        entityManager.persist(Book.builder().author("Emerson").title("A").isbn("3").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Book> page = repository.findFields(Book.builder().author("emer").build(), Set.of("title"),
+                PageRequest.of(0, 1, Sort.by("title")));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(page.getContent()).hasSize(1);
+        Book book = page.getContent().get(0);
+        Assertions.assertThat(book.getTitle()).isEqualTo("A");
+        Assertions.assertThat(book.getId()).isNotNull();
+        Assertions.assertThat(book.getVersion()).isZero();
+        Assertions.assertThat(book.getAuthor()).isNull();
+        Assertions.assertThat(book.getIsbn()).isNull();
+        Assertions.assertThat(entityManager.getEntityManager().contains(book)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve buscar somente os campos pedidos do livro filtrado pelo id")
+    void findFieldsByIdTest() {
+        entityManager.persist(Book.builder().author("Emerson").title("A").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().author("Emerson").title("B").isbn("2").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Book> page = repository.findFields(Book.builder().id(second.getId()).build(), Set.of("title"),
+                PageRequest.of(0, 10));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(page.getContent()).extracting(Book::getTitle).containsExactly("B");
+    }
+
+    @Test
+    @DisplayName("Deve incrementar a versão ao atualizar e recusar a gravação de uma versão antiga")
+    void optimisticLockingTest() {
+        Book saved = entityManager.persistFlushFind(createNewBook());
+        Book stale = saved.toBuilder().title("Antigo").build();
+        entityManager.clear();
+
+        saved.setTitle("Novo");
+        Book updated = repository.saveAndFlush(saved);
+        entityManager.clear();
+
+        Assertions.assertThat(updated.getVersion()).isEqualTo(stale.getVersion() + 1);
+        Assertions.assertThatThrownBy(() -> repository.saveAndFlush(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
     private Book createNewBook() {
         return Book.builder().author("Emerson").title("As Aventuras").isbn("123").build();
     }
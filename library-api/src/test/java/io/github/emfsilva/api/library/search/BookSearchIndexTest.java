@@ -0,0 +1,117 @@
+package io.github.emfsilva.api.library.search;
+
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class BookSearchIndexTest {
+
+    BookRepository repository = Mockito.mock(BookRepository.class);
+    BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        Book first = Book.builder().id(1L).title("As Aventuras").author("Fulano").isbn("123").build();
+        Book second = Book.builder().id(2L).title("Outras aventuras").author("Ciclano").isbn("456").build();
+        Book third = Book.builder().id(3L).title("Memórias").author("Fulano de Tal").isbn("789").build();
+
+        Mockito.when(repository.findAfter(Mockito.isNull(), Mockito.any(BookCursor.class), Mockito.anyInt()))
+                .thenReturn(List.of(first, second, third), List.of());
+
+        index = new BookSearchIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livros por parte do título ignorando maiúsculas")
+    void searchByTitleTest() {
+        Book filter = Book.builder().title("AVENTURA").build();
+
+        Page<Long> result = index.search(filter, PageRequest.of(0, 10));
+
+        Assertions.assertThat(result.getContent()).containsExactly(1L, 2L);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve combinar filtros de título e autor")
+    void searchByTitleAndAuthorTest() {
+        Book filter = Book.builder().title("aventuras").author("fulano").build();
+
+        Page<Long> result = index.search(filter, PageRequest.of(0, 10));
+
+        Assertions.assertThat(result.getContent()).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Deve paginar e ordenar pelo id de forma decrescente")
+    void searchPagedTest() {
+        Book filter = Book.builder().author("ano").build();
+
+        Page<Long> result = index.search(filter, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        Assertions.assertThat(result.getContent()).containsExactly(1L);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve manter o índice sincronizado com atualizações e exclusões")
+    void syncWithChangesTest() {
+        Book updated = Book.builder().id(1L).title("Novo Titulo").author("Fulano").isbn("123").build();
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, Book.builder().id(2L).build()));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED,
+                Book.builder().id(4L).title("Aventuras de novo").author("Beltrano").isbn("000").build()));
+
+        Page<Long> aventuras = index.search(Book.builder().title("aventuras").build(), PageRequest.of(0, 10));
+        Page<Long> novo = index.search(Book.builder().title("novo").build(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(aventuras.getContent()).containsExactly(4L);
+        Assertions.assertThat(novo.getContent()).containsExactly(1L, 4L);
+        Assertions.assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Não deve atender termos curtos nem ordenações por outras propriedades")
+    void supportsTest() {
+        Assertions.assertThat(index.supports(Book.builder().title("as").build(), PageRequest.of(0, 10))).isFalse();
+        Assertions.assertThat(index.supports(Book.builder().title("aventuras").build(),
+                PageRequest.of(0, 10, Sort.by("title")))).isFalse();
+        Assertions.assertThat(index.supports(Book.builder().title("aventuras").build(), PageRequest.of(0, 10))).isTrue();
+        Assertions.assertThat(index.supports(Book.builder().id(1L).title("aventuras").build(), PageRequest.of(0, 10)))
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Não deve devolver ao índice um livro excluído durante a reconstrução")
+    void deleteDuringRebuildTest() {
+        Book first = Book.builder().id(1L).title("As Aventuras").author("Fulano").isbn("123").build();
+        Book second = Book.builder().id(2L).title("Outras aventuras").author("Ciclano").isbn("456").build();
+        Book deleted = Book.builder().id(5L).title("Aventuras apagadas").author("Beltrano").isbn("999").build();
+        // o DELETE confirma depois que o bloco com o livro já foi lido
+        Mockito.when(repository.findAfter(Mockito.isNull(), Mockito.any(BookCursor.class), Mockito.anyInt()))
+                .thenAnswer(invocation -> {
+                    index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, Book.builder().id(5L).build()));
+                    return List.of(first, second, deleted);
+                })
+                .thenReturn(List.of());
+
+        index = new BookSearchIndex(repository);
+        index.rebuild();
+
+        Page<Long> result = index.search(Book.builder().title("aventuras").build(), PageRequest.of(0, 10));
+        Assertions.assertThat(result.getContent()).containsExactly(1L, 2L);
+        Assertions.assertThat(index.size()).isEqualTo(2);
+    }
+}
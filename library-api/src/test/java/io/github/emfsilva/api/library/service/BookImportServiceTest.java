@@ -0,0 +1,108 @@
+package io.github.emfsilva.api.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.mapper.DirectBookMapper;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
+import io.github.emfsilva.api.library.model.batch.BookImportReport;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.service.impl.BookImportServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class BookImportServiceTest {
+
+    BookService bookService = Mockito.mock(BookService.class);
+    BookImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new BookImportServiceImpl(bookService, new DirectBookMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2);
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            return books.stream().map(BookBatchResult::created).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    @DisplayName("Deve importar NDJSON em lotes, rejeitando linhas inválidas")
+    void importNdjsonTest() throws Exception {
+        String ndjson = "{\"title\":\"A\",\"author\":\"B\",\"isbn\":\"1\"}\n"
+                + "\n"
+                + "{\"title\":\"C\",\"author\":\"D\",\"isbn\":\"2\"}\n"
+                + "{\"title\":\"sem autor\",\"isbn\":\"3\"}\n"
+                + "{quebrado\n"
+                + "{\"title\":\"E\",\"author\":\"F\",\"isbn\":\"4\"}\n";
+
+        BookImportReport report = importService.importNdjson(stream(ndjson));
+
+        Assertions.assertThat(report.getProcessed()).isEqualTo(5);
+        Assertions.assertThat(report.getCreated()).isEqualTo(3);
+        Assertions.assertThat(report.getRejected()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).hasSize(2);
+        Assertions.assertThat(report.getErrors().get(0)).startsWith("linha 4: author");
+        Assertions.assertThat(report.getErrors().get(1)).startsWith("linha 5: ");
+        Mockito.verify(bookService, Mockito.times(2)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar por linha os registros nulos ou que não sejam objetos")
+    void importNdjsonNonObjectTest() throws Exception {
+        String ndjson = "null\n"
+                + "42\n"
+                + "[{\"title\":\"A\",\"author\":\"B\",\"isbn\":\"1\"}]\n"
+                + "\"texto\"\n"
+                + "{\"title\":\"C\",\"author\":\"D\",\"isbn\":\"2\"}\n"
+                + "{quebrado\n"
+                + "{\"title\":\"E\",\"author\":\"F\",\"isbn\":\"3\"}\n";
+
+        BookImportReport report = importService.importNdjson(stream(ndjson));
+
+        Assertions.assertThat(report.getProcessed()).isEqualTo(7);
+        Assertions.assertThat(report.getCreated()).isEqualTo(2);
+        Assertions.assertThat(report.getRejected()).isEqualTo(5);
+        Assertions.assertThat(report.getErrors()).extracting(error -> error.substring(0, error.indexOf(':')))
+                .containsExactly("linha 1", "linha 2", "linha 3", "linha 4", "linha 6");
+        Assertions.assertThat(report.getErrors().get(0)).isEqualTo("linha 1: registro nulo");
+    }
+
+    @Test
+    @DisplayName("Deve importar CSV com cabeçalho")
+    void importCsvTest() throws Exception {
+        String csv = "title,author,isbn\nA,B,1\nC,D,2\nE,F,3\n";
+
+        BookImportReport report = importService.importCsv(stream(csv));
+
+        Assertions.assertThat(report.getProcessed()).isEqualTo(3);
+        Assertions.assertThat(report.getCreated()).isEqualTo(3);
+        Assertions.assertThat(report.getRejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve contar o lote inteiro como rejeitado quando o BookService recusar o lote")
+    void importRejectedBatchTest() throws Exception {
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenThrow(new BusinessException("Isbn já cadastrado"));
+        String ndjson = "{\"title\":\"A\",\"author\":\"B\",\"isbn\":\"1\"}\n{\"title\":\"C\",\"author\":\"D\",\"isbn\":\"2\"}\n";
+
+        BookImportReport report = importService.importNdjson(stream(ndjson));
+
+        Assertions.assertThat(report.getCreated()).isZero();
+        Assertions.assertThat(report.getRejected()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).containsExactly("linha 1: Isbn já cadastrado", "linha 2: Isbn já cadastrado");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
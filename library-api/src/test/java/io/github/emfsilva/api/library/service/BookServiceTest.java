@@ -1,9 +1,19 @@
 package io.github.emfsilva.api.library.service;
 
+import io.github.emfsilva.api.library.cache.BookCache;
+import io.github.emfsilva.api.library.coalescing.BookRequestCoalescer;
 import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.isbn.IsbnRegistry;
+import io.github.emfsilva.api.library.metrics.BookMetrics;
+import io.github.emfsilva.api.library.model.batch.BookBatchResult;
 import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.model.pagination.BookCursor;
+import io.github.emfsilva.api.library.model.pagination.CursorPage;
 import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.search.BookSearchIndex;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
 import io.github.emfsilva.api.library.service.impl.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,16 +23,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -34,9 +56,25 @@ class BookServiceTest {
     @MockBean
     BookRepository repository;
 
+    @MockBean
+    BookSearchIndex searchIndex;
+
+    ApplicationEventPublisher publisher = Mockito.mock(ApplicationEventPublisher.class);
+
+    IsbnRegistry isbnRegistry;
+
+    BookCache bookCache;
+
+    BookMetrics metrics = new BookMetrics(new SimpleMeterRegistry());
+
+    PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+
     @BeforeEach
     public void setUp() {
-        this.service = new BookServiceImpl(repository);
+        this.isbnRegistry = new IsbnRegistry(repository, 1_000, 0.01);
+        this.bookCache = new BookCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        this.service = new BookServiceImpl(repository, publisher, Optional.empty(), isbnRegistry, bookCache, metrics, 1_000,
+                transactionManager, Optional.empty(), Optional.empty(), 2, 2);
     }
 
     @Test
@@ -83,6 +121,139 @@ class BookServiceTest {
         Mockito.verify(repository, Mockito.never()).save(book);
     }
 
+    @Test
+    @DisplayName("Não deve consultar o banco quando o bloom filter garante que o isbn não existe")
+    void saveBookSkipsExistsByIsbnTest() {
+        //cenario
+        Book book = createValidBook();
+        Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("999"));
+        Mockito.when(repository.save(book)).thenReturn(book);
+        isbnRegistry.warmUp();
+
+        //execução
+        service.save(book);
+
+        // verificação
+        Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+        Assertions.assertThat(isbnRegistry.mightExist(book.getIsbn())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro de negocio quando o mesmo isbn está sendo cadastrado em paralelo")
+    void shouldNotSaveBookWithIsbnInFlight() {
+        //cenario
+        Book book = createValidBook();
+        isbnRegistry.reserve(book.getIsbn());
+
+        // execucao
+        Throwable expection = Assertions.catchThrowable(() -> service.save(book));
+
+        // verificação
+        Assertions.assertThat(expection).isInstanceOf(BusinessException.class).hasMessage(ISBN_CADASTRADO);
+        Mockito.verify(repository, Mockito.never()).save(book);
+    }
+
+    @Test
+    @DisplayName("Deve converter a violação da constraint unique de isbn em erro de negocio")
+    void shouldTranslateUniqueIsbnViolation() {
+        //cenario
+        Book book = createValidBook();
+        Mockito.when(repository.save(book)).thenThrow(new DataIntegrityViolationException("duplicado",
+                new org.hibernate.exception.ConstraintViolationException("duplicado", null, Book.UK_ISBN)));
+
+        // execucao
+        Throwable expection = Assertions.catchThrowable(() -> service.save(book));
+
+        // verificação
+        Assertions.assertThat(expection).isInstanceOf(BusinessException.class).hasMessage(ISBN_CADASTRADO);
+        Assertions.assertThat(isbnRegistry.reserve(book.getIsbn())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve salvar livros em lote rejeitando isbns repetidos no lote ou já cadastrados")
+    void saveAllTest() {
+        //cenario
+        Book first = Book.builder().isbn("1").author("Fulano").title("Um").build();
+        Book repeated = Book.builder().isbn("1").author("Fulano").title("Um de novo").build();
+        Book existing = Book.builder().isbn("2").author("Fulano").title("Dois").build();
+        Book second = Book.builder().isbn("3").author("Fulano").title("Tres").build();
+
+        Mockito.when(repository.findExistingIsbns(List.of("1", "2", "3"))).thenReturn(List.of("2"));
+        Mockito.when(repository.saveAll(List.of(first, second))).thenReturn(List.of(first, second));
+
+        //execução
+        List<BookBatchResult> results = service.saveAll(List.of(first, repeated, existing, second));
+
+        // verificação
+        Assertions.assertThat(results).extracting(BookBatchResult::isCreated).containsExactly(true, false, false, true);
+        Assertions.assertThat(results.get(1).getError()).isEqualTo(ISBN_CADASTRADO);
+        Assertions.assertThat(results.get(3).getBook()).isEqualTo(second);
+        Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+        Mockito.verify(publisher, Mockito.times(2)).publishEvent(Mockito.any(BookChangedEvent.class));
+        Assertions.assertThat(isbnRegistry.reserve("1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve gravar livro a livro quando o banco recusar o lote, reportando só o isbn em conflito")
+    void saveAllConstraintFallbackTest() {
+        //cenario
+        Book first = Book.builder().isbn("1").author("Fulano").title("Um").build();
+        Book conflict = Book.builder().isbn("2").author("Fulano").title("Dois").build();
+        DataIntegrityViolationException isbnViolation = new DataIntegrityViolationException("duplicado",
+                new org.hibernate.exception.ConstraintViolationException("duplicado", null, Book.UK_ISBN));
+        Mockito.when(repository.findExistingIsbns(Mockito.anyList())).thenReturn(List.of());
+        Mockito.doThrow(isbnViolation).when(repository).flush();
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(repository.saveAndFlush(Mockito.any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            if (book.getIsbn().equals("2")) {
+                throw isbnViolation;
+            }
+            return book.toBuilder().id(10L).build();
+        });
+
+        //execução
+        List<BookBatchResult> results = service.saveAll(List.of(first, conflict));
+
+        // verificação
+        Assertions.assertThat(results).extracting(BookBatchResult::isCreated).containsExactly(true, false);
+        Assertions.assertThat(results.get(0).getBook().getId()).isEqualTo(10L);
+        Assertions.assertThat(results.get(1).getError()).isEqualTo(ISBN_CADASTRADO);
+        // os livros do chamador não recebem id
+        Assertions.assertThat(first.getId()).isNull();
+        Mockito.verify(publisher, Mockito.times(1)).publishEvent(Mockito.any(BookChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar só o item com outra violação de restrição no fallback e seguir com o resto")
+    void saveAllOtherConstraintFallbackTest() {
+        //cenario
+        Book first = Book.builder().isbn("1").author("Fulano").title("Um").build();
+        Book invalid = Book.builder().isbn("2").author("Fulano").title("Dois").build();
+        Book last = Book.builder().isbn("3").author("Fulano").title("Tres").build();
+        DataIntegrityViolationException otherViolation = new DataIntegrityViolationException("titulo longo",
+                new org.hibernate.exception.ConstraintViolationException("titulo longo", null, "CK_BOOK_TITLE"));
+        Mockito.when(repository.findExistingIsbns(Mockito.anyList())).thenReturn(List.of());
+        Mockito.doThrow(otherViolation).when(repository).flush();
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(repository.saveAndFlush(Mockito.any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            if (book.getIsbn().equals("2")) {
+                throw otherViolation;
+            }
+            return book.toBuilder().id(Long.valueOf(book.getIsbn())).build();
+        });
+
+        //execução
+        List<BookBatchResult> results = service.saveAll(List.of(first, invalid, last));
+
+        // verificação
+        Assertions.assertThat(results).extracting(BookBatchResult::isCreated).containsExactly(true, false, true);
+        Assertions.assertThat(results.get(1).getError()).startsWith("Livro recusado pelo banco: ");
+        Assertions.assertThat(results.get(2).getBook().getId()).isEqualTo(3L);
+        Mockito.verify(publisher, Mockito.times(2)).publishEvent(Mockito.any(BookChangedEvent.class));
+    }
+
     @Test
     @DisplayName("Deve obter um livro por ID")
     void getByIdTest() {
@@ -120,6 +291,29 @@ class BookServiceTest {
 
     }
 
+    @Test
+    @DisplayName("Deve obter livros por ids em blocos, na ordem pedida e sem os inexistentes")
+    void getByIdsTest() {
+        // cenario: blocos de 2 ids, o segundo e o terceiro em paralelo
+        Book first = createValidBook();
+        first.setId(1L);
+        Book third = createValidBook();
+        third.setId(3L);
+        Book fifth = createValidBook();
+        fifth.setId(5L);
+        Mockito.when(repository.findAllById(List.of(5L, 1L))).thenReturn(List.of(first, fifth));
+        Mockito.when(repository.findAllById(List.of(2L, 3L))).thenReturn(List.of(third));
+        Mockito.when(repository.findAllById(List.of(4L))).thenReturn(List.of());
+
+        // execução
+        Map<Long, Book> found = service.getByIds(List.of(5L, 1L, 5L, 2L, 3L, 4L));
+
+        // verificação
+        Assertions.assertThat(found.keySet()).containsExactly(5L, 1L, 3L);
+        Assertions.assertThat(found.get(3L)).isSameAs(third);
+        Mockito.verify(repository, Mockito.times(3)).findAllById(Mockito.anyIterable());
+    }
+
     @Test
     @DisplayName("Deve deletar um livro por ID")
     void deleteTest() {
@@ -200,8 +394,7 @@ class BookServiceTest {
         List<Book> list = List.of(book);
         Page<Book> page = new PageImpl<>(list, pageRequest, 1);
 
-        Mockito.when(repository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
-                .thenReturn(page);
+        Mockito.when(repository.findMatching(book, pageRequest)).thenReturn(page);
 
         // execucao
         Page<Book> result = service.find(book, pageRequest);
@@ -214,6 +407,151 @@ class BookServiceTest {
 
     }
 
+    @Test
+    @DisplayName("Deve paginar por cursor buscando um registro a mais para saber se há próxima página")
+    void scrollBookTest() {
+        // cenario
+        Book first = createValidBook();
+        first.setId(1L);
+        Book second = createValidBook();
+        second.setId(2L);
+        BookCursor cursor = BookCursor.first("id");
+
+        Mockito.when(repository.findAfter(Mockito.any(Book.class), Mockito.eq(cursor), Mockito.eq(2)))
+                .thenReturn(List.of(first, second));
+
+        // execucao
+        CursorPage<Book> result = service.scroll(new Book(), cursor, 1, false);
+
+        // verificações
+        Assertions.assertThat(result.getContent()).containsExactly(first);
+        Assertions.assertThat(result.getNextCursor()).isEqualTo(cursor.after(first).encode());
+        Assertions.assertThat(result.getTotalElements()).isNull();
+        Mockito.verify(repository, Mockito.never()).countMatching(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Deve encerrar a paginação por cursor na última página")
+    void scrollLastPageTest() {
+        // cenario
+        Book book = createValidBook();
+        BookCursor cursor = BookCursor.first("title,desc");
+
+        Mockito.when(repository.findAfter(Mockito.any(Book.class), Mockito.eq(cursor), Mockito.eq(11)))
+                .thenReturn(List.of(book));
+        Mockito.when(repository.countMatching(Mockito.any(Book.class))).thenReturn(1L);
+
+        // execucao
+        CursorPage<Book> result = service.scroll(new Book(), cursor, 10, true);
+
+        // verificações
+        Assertions.assertThat(result.getContent()).containsExactly(book);
+        Assertions.assertThat(result.getNextCursor()).isNull();
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(1L);
+    }
+    @Test
+    @DisplayName("Deve publicar evento ao salvar um livro")
+    void saveBookPublishesEventTest() {
+        // cenario
+        Book book = createValidBook();
+        Mockito.when(repository.save(book)).thenReturn(book);
+
+        // execucao
+        service.save(book);
+
+        // verificações
+        Mockito.verify(publisher).publishEvent(Mockito.any(BookChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros pelo índice de busca e hidratar somente os ids encontrados")
+    void findBookWithSearchIndexTest() {
+        // cenario
+        service = new BookServiceImpl(repository, publisher, Optional.of(searchIndex), isbnRegistry, bookCache, metrics, 1_000,
+                transactionManager, Optional.empty(), Optional.empty(), 2, 2);
+        Book first = createValidBook();
+        first.setId(1L);
+        Book second = createValidBook();
+        second.setId(2L);
+        Book filter = Book.builder().title("aventuras").build();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        Mockito.when(searchIndex.supports(filter, pageRequest)).thenReturn(true);
+        Mockito.when(searchIndex.search(filter, pageRequest)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageRequest, 2));
+        Mockito.when(repository.findAllById(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+        // execucao
+        Page<Book> result = service.find(filter, pageRequest);
+
+        // verificações
+        Assertions.assertThat(result.getContent()).containsExactly(second, first);
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(2);
+        Mockito.verify(repository, Mockito.never()).findMatching(Mockito.any(Book.class), Mockito.any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Deve dividir uma única consulta entre buscas concorrentes iguais, ignorando a caixa do filtro")
+    void findCoalescedTest() throws Exception {
+        // cenario
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new BookServiceImpl(repository, publisher, Optional.empty(), isbnRegistry, bookCache, metrics, 1_000,
+                transactionManager, Optional.of(new BookRequestCoalescer(registry)), Optional.empty(), 2, 2);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<Book> page = new PageImpl<>(List.of(createValidBook()), pageRequest, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(repository.findMatching(Mockito.any(Book.class), Mockito.eq(pageRequest))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return page;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // execucao
+        try {
+            Future<Page<Book>> leader = executor.submit(
+                    () -> service.find(Book.builder().author("Fulano").build(), pageRequest));
+            started.await(5, TimeUnit.SECONDS);
+            AtomicReference<Thread> followerThread = new AtomicReference<>();
+            Future<Page<Book>> follower = executor.submit(() -> {
+                followerThread.set(Thread.currentThread());
+                return service.find(Book.builder().author("fulano").build(), pageRequest);
+            });
+            // a segunda busca só fica em WAITING esperando a primeira
+            while (followerThread.get() == null || followerThread.get().getState() != Thread.State.WAITING) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // verificações
+            Assertions.assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(page);
+            Assertions.assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(page);
+        } finally {
+            executor.shutdownNow();
+        }
+        Mockito.verify(repository, Mockito.times(1)).findMatching(Mockito.any(Book.class), Mockito.eq(pageRequest));
+        Assertions.assertThat(registry.get("library.book.single.flight").tag("operation", "find")
+                .tag("outcome", "shared").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve exportar os livros do stream do repositório e fechar o stream no final")
+    void exportTest() {
+        // cenario
+        Book filter = Book.builder().author("Fulano").build();
+        Book book = createValidBook();
+        boolean[] closed = {false};
+        Mockito.when(repository.streamMatching(filter, 1_000))
+                .thenReturn(Stream.of(book).onClose(() -> closed[0] = true));
+        List<Book> exported = new ArrayList<>();
+
+        // execucao
+        service.export(filter, exported::add);
+
+        // verificações
+        Assertions.assertThat(exported).containsExactly(book);
+        Assertions.assertThat(closed[0]).isTrue();
+    }
 
     private Book createValidBook() {
         return Book.builder().isbn("123").author("Fulano").title("As Aventuras").build();
@@ -0,0 +1,129 @@
+package io.github.emfsilva.api.library.service;
+
+import io.github.emfsilva.api.library.config.ReactiveDataConfig;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.ReactiveBookRepository;
+import io.github.emfsilva.api.library.service.impl.ReactiveBookServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.test.StepVerifier;
+
+// serviço reativo contra o R2DBC com H2 em memória
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "reactive"})
+@DataR2dbcTest(properties = "spring.main.web-application-type=none")
+@Import({ReactiveDataConfig.class, ReactiveBookRepository.class, ReactiveBookServiceImpl.class})
+class ReactiveBookServiceTest {
+
+    String ISBN_CADASTRADO = "Isbn já cadastrado";
+
+    @Autowired
+    ReactiveBookService service;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.execute("delete from book").then().block();
+    }
+
+    @Test
+    @DisplayName("Deve salvar um livro e buscá-lo pelo id")
+    void saveAndGetByIdTest() {
+        Book saved = service.save(createValidBook()).block();
+
+        Assertions.assertThat(saved.getId()).isNotNull();
+        StepVerifier.create(service.getById(saved.getId()))
+                .assertNext(book -> Assertions.assertThat(book.getTitle()).isEqualTo("As Aventuras"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro de negócio ao tentar salvar um livro com isbn duplicado")
+    void shouldNotSaveABookWithDuplicatedISBN() {
+        service.save(createValidBook()).block();
+
+        StepVerifier.create(service.save(createValidBook()))
+                .expectErrorSatisfies(error -> Assertions.assertThat(error)
+                        .isInstanceOf(BusinessException.class)
+                        .hasMessage(ISBN_CADASTRADO))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros ignorando caixa, tratando curingas do like como texto e paginando")
+    void findBookTest() {
+        service.save(Book.builder().isbn("1").author("Fulano").title("As Aventuras").build()).block();
+        service.save(Book.builder().isbn("2").author("Fulano").title("Aventuras 100%").build()).block();
+        service.save(Book.builder().isbn("3").author("Outro").title("Aventuras 100").build()).block();
+
+        Page<Book> page = service.find(Book.builder().title("aventuras").author("FULANO").build(),
+                PageRequest.of(0, 1, Sort.by("title").descending())).block();
+        Page<Book> percent = service.find(Book.builder().title("100%").build(), PageRequest.of(0, 10)).block();
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(page.getContent()).extracting(Book::getIsbn).containsExactly("2");
+        Assertions.assertThat(percent.getContent()).extracting(Book::getIsbn).containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("Deve filtrar livros pelo id, como a busca da pilha servlet")
+    void findBookByIdTest() {
+        service.save(Book.builder().isbn("1").author("Fulano").title("As Aventuras").build()).block();
+        Book second = service.save(Book.builder().isbn("2").author("Fulano").title("Outras Aventuras").build()).block();
+
+        Page<Book> page = service.find(Book.builder().id(second.getId()).build(), PageRequest.of(0, 10)).block();
+        Page<Book> other = service.find(Book.builder().id(second.getId()).author("outro").build(), PageRequest.of(0, 10))
+                .block();
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(page.getContent()).extracting(Book::getIsbn).containsExactly("2");
+        Assertions.assertThat(other.getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar e deletar um livro")
+    void updateAndDeleteTest() {
+        Book saved = service.save(createValidBook()).block();
+        saved.setTitle("Novo");
+
+        service.update(saved).block();
+        Assertions.assertThat(service.getById(saved.getId()).block().getTitle()).isEqualTo("Novo");
+
+        service.delete(saved).block();
+        StepVerifier.create(service.getById(saved.getId())).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve recusar a atualização de uma versão antiga do livro")
+    void staleUpdateTest() {
+        Book saved = service.save(createValidBook()).block();
+        Book stale = saved.toBuilder().title("Antigo").build();
+        saved.setTitle("Novo");
+
+        Assertions.assertThat(service.update(saved).block().getVersion()).isEqualTo(1L);
+        StepVerifier.create(service.update(stale))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        Assertions.assertThat(service.getById(saved.getId()).block().getTitle()).isEqualTo("Novo");
+    }
+
+    private Book createValidBook() {
+        return Book.builder().isbn("123").author("Fulano").title("As Aventuras").build();
+    }
+}
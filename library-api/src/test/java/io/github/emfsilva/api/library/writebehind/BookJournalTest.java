@@ -0,0 +1,51 @@
+package io.github.emfsilva.api.library.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.model.dto.BookDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class BookJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Deve reescrever o journal só com os pendentes quando passar do limite de linhas")
+    void compactTest() {
+        BookJournal journal = new BookJournal(tempDir.resolve("books.ndjson"), false, new ObjectMapper());
+        for (long id = 1; id <= 4; id++) {
+            journal.append(book(id), () -> { });
+        }
+
+        Assertions.assertThat(journal.compactIf(4, () -> List.of(book(4L)))).isFalse();
+        journal.append(book(5L), () -> { });
+        Assertions.assertThat(journal.compactIf(4, () -> List.of(book(4L), book(5L)))).isTrue();
+        journal.append(book(6L), () -> { });
+
+        Assertions.assertThat(journal.readAll()).extracting(BookDTO::getId).containsExactly(4L, 5L, 6L);
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Deve rodar a ação do append depois de escrever a linha")
+    void appendedTest() {
+        BookJournal journal = new BookJournal(tempDir.resolve("books.ndjson"), false, new ObjectMapper());
+        List<Long> seen = new ArrayList<>();
+
+        journal.append(book(1L), () -> seen.add((long) journal.readAll().size()));
+
+        Assertions.assertThat(seen).containsExactly(1L);
+        journal.close();
+    }
+
+    private static BookDTO book(Long id) {
+        return new BookDTO(id, "Titulo " + id, "Fulano", "isbn-" + id);
+    }
+}
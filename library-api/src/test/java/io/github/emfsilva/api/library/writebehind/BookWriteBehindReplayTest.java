@@ -0,0 +1,67 @@
+package io.github.emfsilva.api.library.writebehind;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// contexto inteiro: o journal deixado por uma execução anterior é reaplicado na subida e o
+// livro tem que aparecer no feed de alterações, como um aceito pelo POST
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"library.write-behind.enabled=true", "library.change-log.enabled=true"})
+@AutoConfigureMockMvc
+class BookWriteBehindReplayTest {
+
+    static final long REPLAYED_ID = 777L;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        Path journal = Files.createTempFile("books", ".ndjson");
+        journal.toFile().deleteOnExit();
+        Files.writeString(journal, "{\"id\":" + REPLAYED_ID
+                + ",\"title\":\"Do Journal\",\"author\":\"Fulano\",\"isbn\":\"journal-777\"}\n", StandardCharsets.UTF_8);
+        registry.add("library.write-behind.journal", journal::toString);
+    }
+
+    @Test
+    @DisplayName("Deve publicar no feed de alterações o livro reaplicado do journal")
+    void replayedBookInChangesTest() throws Exception {
+        Assertions.assertThat(jdbc.queryForObject("select count(*) from book where id = ?", Integer.class,
+                REPLAYED_ID)).isEqualTo(1);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/api/books/changes?after=0&limit=1000"))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes[*].bookId", hasItem((int) REPLAYED_ID)))
+                .andExpect(jsonPath("changes[*].type", hasItem("CREATED")));
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.emfsilva.api.library.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.emfsilva.api.library.config.SchemaMigrationConfig;
+import io.github.emfsilva.api.library.exception.business.BusinessException;
+import io.github.emfsilva.api.library.isbn.IsbnRegistry;
+import io.github.emfsilva.api.library.mapper.DirectBookMapper;
+import io.github.emfsilva.api.library.model.entity.Book;
+import io.github.emfsilva.api.library.repository.BookRepository;
+import io.github.emfsilva.api.library.service.event.BookChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// a thread de gravação não participa da transação do teste: cada teste limpa a tabela
+// e chama o flush() diretamente
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookWriteBehindTest {
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    JdbcTemplate jdbc;
+    ApplicationEventPublisher publisher;
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("delete from book");
+        publisher = Mockito.mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Deve aceitar o livro com id e versão e gravá-lo no banco só no flush")
+    void acceptAndFlushTest() {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+
+        Book accepted = writeBehind.accept(createBook("123"));
+
+        Assertions.assertThat(accepted.getId()).isNotNull();
+        Assertions.assertThat(accepted.getVersion()).isZero();
+        Assertions.assertThat(writeBehind.pending()).isEqualTo(1);
+        Assertions.assertThat(repository.existsById(accepted.getId())).isFalse();
+
+        writeBehind.flush();
+
+        Assertions.assertThat(writeBehind.pending()).isZero();
+        Assertions.assertThat(repository.findById(accepted.getId()))
+                .hasValueSatisfying(book -> Assertions.assertThat(book.getIsbn()).isEqualTo("123"));
+        Assertions.assertThat(meterRegistry.counter("library.book.write.behind.flushed").count()).isEqualTo(1);
+        Mockito.verify(publisher).publishEvent(Mockito.any(BookChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve publicar o CREATED dentro da transação do insert, com o livro já gravado")
+    void createdInInsertTransactionTest() {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+        List<Boolean> inTransaction = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            BookChangedEvent event = invocation.getArgument(0);
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()
+                    && jdbc.queryForObject("select count(*) from book where id = ?", Integer.class,
+                    event.getBook().getId()) == 1);
+            return null;
+        }).when(publisher).publishEvent(Mockito.any(BookChangedEvent.class));
+        writeBehind.accept(createBook("1"));
+        writeBehind.accept(createBook("2"));
+        // o fallback por linha também publica dentro da sua transação
+        jdbc.update(BookWriteBehind.INSERT, 1L, "Outro", "Fulano", "2");
+
+        writeBehind.flush();
+
+        Assertions.assertThat(inTransaction).containsExactly(true);
+    }
+
+    @Test
+    @DisplayName("Deve recusar isbn já gravado ou ainda pendente na fila")
+    void duplicatedIsbnTest() {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+        jdbc.update(BookWriteBehind.INSERT, 1L, "Gravado", "Fulano", "001");
+        writeBehind.accept(createBook("123"));
+
+        Assertions.assertThatThrownBy(() -> writeBehind.accept(createBook("123")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage(BookWriteBehind.ISBN_CADASTRADO);
+        Assertions.assertThatThrownBy(() -> writeBehind.accept(createBook("001")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage(BookWriteBehind.ISBN_CADASTRADO);
+        Assertions.assertThat(writeBehind.pending()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve recusar com fila cheia e liberar o isbn para uma nova tentativa")
+    void queueFullTest() {
+        BookWriteBehind writeBehind = createWriteBehind(1, "");
+        writeBehind.accept(createBook("1"));
+
+        Assertions.assertThatThrownBy(() -> writeBehind.accept(createBook("2")))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+
+        writeBehind.flush();
+        Assertions.assertThat(writeBehind.accept(createBook("2")).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve contar como rejeitado o livro que o banco recusar e gravar o resto do lote")
+    void rejectedRowTest() {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+        Book first = writeBehind.accept(createBook("1"));
+        Book second = writeBehind.accept(createBook("2"));
+        // isbn gravado por outro caminho depois do aceite
+        jdbc.update(BookWriteBehind.INSERT, 1L, "Outro", "Fulano", "1");
+
+        writeBehind.flush();
+
+        Assertions.assertThat(repository.existsById(first.getId())).isFalse();
+        Assertions.assertThat(repository.existsById(second.getId())).isTrue();
+        Assertions.assertThat(writeBehind.pending()).isZero();
+        Assertions.assertThat(meterRegistry.counter("library.book.write.behind.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve contar como gravado o livro cujo id já chegou ao banco numa tentativa anterior")
+    void alreadyInsertedRetryTest() {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+        Book committed = writeBehind.accept(createBook("1"));
+        Book second = writeBehind.accept(createBook("2"));
+        // a tentativa anterior gravou o primeiro e caiu antes de confirmar
+        jdbc.update(BookWriteBehind.INSERT, committed.getId(), committed.getTitle(), committed.getAuthor(),
+                committed.getIsbn());
+
+        writeBehind.flush();
+
+        Assertions.assertThat(repository.existsById(second.getId())).isTrue();
+        Assertions.assertThat(meterRegistry.counter("library.book.write.behind.rejected").count()).isZero();
+        Assertions.assertThat(meterRegistry.counter("library.book.write.behind.flushed").count()).isEqualTo(2);
+        Mockito.verify(publisher, Mockito.times(2)).publishEvent(Mockito.any(BookChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar novos livros depois do stop e gravar os já aceitos")
+    void stopTest() throws Exception {
+        BookWriteBehind writeBehind = createWriteBehind(10, "");
+        Book accepted = writeBehind.accept(createBook("1"));
+
+        writeBehind.stop();
+
+        Assertions.assertThat(repository.existsById(accepted.getId())).isTrue();
+        Assertions.assertThatThrownBy(() -> writeBehind.accept(createBook("2")))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+    }
+
+    @Test
+    @DisplayName("Deve reaplicar o journal na subida sem duplicar os livros já gravados")
+    void journalReplayTest() throws Exception {
+        Path journal = tempDir.resolve("books.ndjson");
+        BookWriteBehind crashed = createWriteBehind(10, journal.toString());
+        Book saved = crashed.accept(createBook("1"));
+        Book lost = crashed.accept(createBook("2"));
+        // o primeiro chegou ao banco antes da queda, o segundo não
+        jdbc.update(BookWriteBehind.INSERT, saved.getId(), saved.getTitle(), saved.getAuthor(), saved.getIsbn());
+
+        BookWriteBehind restarted = createWriteBehind(10, journal.toString());
+        restarted.start();
+        restarted.stop();
+
+        Assertions.assertThat(repository.count()).isEqualTo(2);
+        Assertions.assertThat(repository.existsById(lost.getId())).isTrue();
+        Assertions.assertThat(Files.size(journal)).isZero();
+    }
+
+    private BookWriteBehind createWriteBehind(int capacity, String journal) {
+        return new BookWriteBehind(repository, new IsbnRegistry(repository, 1_000, 0.01), publisher,
+                new DirectBookMapper(), new ObjectMapper(), jdbc, transactionManager, entityManagerFactory,
+                meterRegistry, capacity, 500, Duration.ofHours(1), journal, false);
+    }
+
+    private Book createBook(String isbn) {
+        return Book.builder().isbn(isbn).author("Fulano").title("As Aventuras").build();
+    }
+}